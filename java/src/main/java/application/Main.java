@@ -2,14 +2,13 @@ package application;
 
 import controller.AccueilController;
 import javafx.application.Application;
-import javafx.concurrent.Task;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import plugin.PluginInitializer;
 import plugin.PluginManager;
-import services.bdd.BddNew;
 import services.security.Security;
+import services.startup.StartupMetrics;
 
 import java.io.File;
 import java.io.IOException;
@@ -55,6 +54,8 @@ public class Main extends Application {
     public void start(Stage stage) throws IOException {
         Main.stage = stage;
         changeScene("Accueil", new AccueilController(), "Bienvenue");
+        // Base de données, IA et plugins se préparent une fois l'accueil affiché
+        StartupOrchestrator.startAfterFirstFrame(stage.getScene());
     }
     
     public static void changeScene(String fxml, Object controller, String title) {
@@ -77,42 +78,13 @@ public class Main extends Application {
     }
 
 
-    public static void initBddAsync() {
-
-
-        Task<Void> bddTask = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                BddNew.initBdd();
-                System.out.println("bdd initialisée avec succès");
-                return null;
-            }
-            @Override
-            protected void failed() {
-                System.out.println("mince alors, la mise en place du microlangage pour la bdd est un echec:\n " + getException().getMessage());
-            }
-        };
-
-        // Exécuter en arrière-plan
-        Thread bddThread = new Thread(bddTask);
-        bddThread.setDaemon(true);
-        bddThread.setName("BDD-Init-Thread");
-        bddThread.start();
-    }
-
     public static void main(String[] args) {
+        StartupMetrics.mark(StartupMetrics.MAIN);
         Security.setDefaultKey("adupngrx3GXZThd7");
 
-        // Initialiser les plugins
-        PluginInitializer.initializeDefaultPlugins();
-
         // Charger la configuration du thème
         loadThemeConfig();
 
-        // Initialisation BDD en arrière-plan
-        System.out.println("lancement en mode asynchrone");
-        initBddAsync();
-
         // Ajouter un hook de fermeture pour nettoyer les plugins
         Runtime.getRuntime().addShutdownHook(new Thread(PluginInitializer::shutdownPlugins));
 
@@ -0,0 +1,130 @@
+package application;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import plugin.PluginInitializer;
+import services.ai.AIClient;
+import services.bdd.BddNew;
+import services.env.Env;
+import services.startup.StartupMetrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Préparation en arrière-plan lancée après l'affichage de la première image :
+ * base de données, backend IA et plugins sont préparés en parallèle
+ * L'état de chaque préparation est un future mémorisé, consulté sans relancer de test
+ * Avec STARTUP_EXIT_AFTER_READY=true l'application se ferme une fois prête (mesures de démarrage répétées)
+ */
+public class StartupOrchestrator {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(3, r -> {
+        Thread thread = new Thread(r, "startup-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final CompletableFuture<Boolean> database = new CompletableFuture<>();
+    private static final CompletableFuture<Boolean> ai = new CompletableFuture<>();
+    private static final CompletableFuture<Boolean> plugins = new CompletableFuture<>();
+    private static final AtomicBoolean started = new AtomicBoolean(false);
+
+    /**
+     * Lance la préparation à la première impulsion de rendu de la scène
+     */
+    public static void startAfterFirstFrame(Scene scene) {
+        AtomicBoolean firstPulse = new AtomicBoolean(false);
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            if (firstPulse.compareAndSet(false, true)) {
+                StartupMetrics.mark(StartupMetrics.FIRST_FRAME);
+                // Retrait différé : la liste des écouteurs est en cours de parcours
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(listener[0]));
+                start();
+            }
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    /**
+     * Lance les trois préparations en parallèle (une seule fois)
+     */
+    public static void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        System.out.println("🚀 Préparation en arrière-plan: base de données, IA, plugins");
+        run(database, StartupMetrics.DATABASE_READY, StartupOrchestrator::warmUpDatabase);
+        run(ai, StartupMetrics.AI_READY, StartupOrchestrator::warmUpAI);
+        run(plugins, StartupMetrics.PLUGINS_READY, StartupOrchestrator::initializePlugins);
+        CompletableFuture.allOf(database, ai, plugins).whenComplete((ignored, error) -> finished());
+    }
+
+    /**
+     * Vrai une fois la base de données joignable et la première requête exécutée
+     */
+    public static CompletableFuture<Boolean> database() {
+        return database;
+    }
+
+    /**
+     * Vrai une fois le backend IA prêt (modèle chargé ou processus lancé)
+     */
+    public static CompletableFuture<Boolean> ai() {
+        return ai;
+    }
+
+    /**
+     * Vrai une fois les plugins par défaut initialisés
+     */
+    public static CompletableFuture<Boolean> plugins() {
+        return plugins;
+    }
+
+    private static void run(CompletableFuture<Boolean> future, String milestone, Callable<Boolean> task) {
+        executor.execute(() -> {
+            boolean ready;
+            try {
+                ready = task.call();
+            } catch (Exception e) {
+                System.out.println("⚠️ Préparation " + milestone + " en échec: " + e.getMessage());
+                ready = false;
+            }
+            StartupMetrics.mark(milestone);
+            future.complete(ready);
+        });
+    }
+
+    private static boolean warmUpDatabase() {
+        BddNew.initBdd();
+        // Première requête : ouvre les connexions du moteur avant la première action de l'utilisateur
+        String result = BddNew.request("postgres", "SELECT id FROM users LIMIT 1");
+        return result != null && !result.startsWith("erreur:") && !result.startsWith("Erreur");
+    }
+
+    private static boolean warmUpAI() throws Exception {
+        AIClient.shared().warmUp();
+        return true;
+    }
+
+    // Seuls les plugins par défaut : un JAR de plugins/ n'est chargé que lorsque l'utilisateur le choisit (PluginController)
+    private static boolean initializePlugins() {
+        PluginInitializer.initializeDefaultPlugins();
+        return true;
+    }
+
+    private static void finished() {
+        StartupMetrics.mark(StartupMetrics.READY);
+        System.out.println(StartupMetrics.getReport());
+        StartupMetrics.save();
+        if (Boolean.parseBoolean(Env.dotenv.get("STARTUP_EXIT_AFTER_READY", "false"))) {
+            Platform.exit();
+        }
+    }
+}
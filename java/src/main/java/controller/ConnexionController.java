@@ -1,6 +1,7 @@
 package controller;
 
 import application.Main;
+import javafx.application.Platform;
 import model.User;
 import repository.UserRepository;
 import javafx.fxml.FXML;
@@ -11,6 +12,8 @@ import javafx.scene.input.MouseEvent;
 import services.alert.Alert;
 import services.browser.Browser;
 
+import java.util.concurrent.CompletionException;
+
 
 public class ConnexionController {
 
@@ -32,23 +35,34 @@ public class ConnexionController {
             Alert.showErrorAlert("erreur", "Format d'email invalide");
             return;
         }
-        User user = UserRepository.connect(emailText, motDePasse);
-        if (user != null && "admin".equals(user.getRole())) {
-            Main.changeScene("Main", new MainController(), "Tableau de bord - Ma Ville");
-        } else {
-            Alert.showErrorAlert("Accès refusé",
-                        user != null ?
-                        (
-                        "Seuls les administrateurs peuvent accéder à cette application.\n" +
-                            "Vérifiez vos identifiants ou contactez un administrateur."
-                        ) :
-                        (
-                        "L'identifiant ou le mot de passe \n" +
-                        "ne sont pas correct."
-                        )
-            );
-            mdp.clear();
-        }
+        // La connexion tourne hors du thread JavaFX (requête sur l'exécuteur BDD, bcrypt sur son propre pool)
+        email.setDisable(true);
+        mdp.setDisable(true);
+        UserRepository.connectAsync(emailText, motDePasse).whenComplete((user, error) -> Platform.runLater(() -> {
+            email.setDisable(false);
+            mdp.setDisable(false);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                Alert.showErrorAlert("erreur", "Connexion impossible: " + cause.getMessage());
+                return;
+            }
+            if (user != null && "admin".equals(user.getRole())) {
+                Main.changeScene("Main", new MainController(), "Tableau de bord - Ma Ville");
+            } else {
+                Alert.showErrorAlert("Accès refusé",
+                            user != null ?
+                            (
+                            "Seuls les administrateurs peuvent accéder à cette application.\n" +
+                                "Vérifiez vos identifiants ou contactez un administrateur."
+                            ) :
+                            (
+                            "L'identifiant ou le mot de passe \n" +
+                            "ne sont pas correct."
+                            )
+                );
+                mdp.clear();
+            }
+        }));
     }
 
     @FXML
@@ -1,6 +1,8 @@
 package controller;
 
 import application.Main;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Label;
@@ -9,15 +11,21 @@ import javafx.scene.layout.HBox;
 import model.Article;
 import plugin.PluginManager;
 import services.bdd.BddNew;
+import services.bdd.RowMapper;
 import services.alert.Alert;
-import services.webscrapper.News;
+import services.webscrapper.ArticleFingerprint;
+import services.webscrapper.ArticleIndex;
+import services.webscrapper.NewsPipeline;
 
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.ResourceBundle;
 
 public class MainController implements Initializable {
@@ -34,13 +42,12 @@ public class MainController implements Initializable {
 
     private List<Article> articles;
 
-    private final News newsService;
-
     private final int LIMITE_ARTICLES = 10;
 
+    private volatile boolean collecteEnCours = false;
+
 
     public MainController(){
-        this.newsService = new News();
     }
 
     @Override
@@ -97,173 +104,154 @@ public class MainController implements Initializable {
     }
 
 
+    /**
+     * Lance la collecte en arrière-plan : requêtes BDD et scraping ne bloquent pas l'interface
+     */
     private void chargerArticles() {
-        try {
-            List<String> villes = getVillesDistinctFromUsers();
-            StringBuilder jsonBuilder = new StringBuilder("{\"news\":{");
-
-            boolean premierVille = true;
-            for (String ville : villes) {
-                System.out.println("DEBUG - Traitement ville: " + ville);
-                articles = newsService.getNews(ville, LIMITE_ARTICLES);
-                System.out.println("DEBUG - Articles trouvés pour " + ville + ": " + (articles != null ? articles.size() : 0));
-                if (articles != null && !articles.isEmpty()) {
-                    if (!premierVille) jsonBuilder.append(",");
-                    premierVille = false;
-
-                    jsonBuilder.append("\"").append(ville.toLowerCase()).append("\":[");
-                    for (int i = 0; i < articles.size(); i++) {
-                        Article article = articles.get(i);
-                        if (i > 0) jsonBuilder.append(",");
-                        jsonBuilder.append("{")
-                                .append("\"titre\":\"").append(escapeJson(article.getTitre())).append("\",")
-                                .append("\"description\":\"").append(escapeJson(article.getDescription())).append("\",")
-                                .append("\"url\":\"").append(escapeJson(article.getUrl())).append("\",")
-                                .append("\"source\":\"").append(escapeJson(article.getSource())).append("\",")
-                                .append("\"datePublication\":\"").append(escapeJson(article.getDatePublication())).append("\",")
-                                .append("\"imageUrl\":\"").append(escapeJson(article.getImageUrl())).append("\",")
-                                .append("\"tags\":[");
-
-                        List<String> tags = article.getTags();
-                        if (tags != null) {
-                            for (int j = 0; j < tags.size(); j++) {
-                                if (j > 0) jsonBuilder.append(",");
-                                jsonBuilder.append("\"").append(escapeJson(tags.get(j))).append("\"");
-                            }
-                        }
-                        jsonBuilder.append("],\"sentiment\":").append(article.getSentiment()).append("}");
-                    }
-                    jsonBuilder.append("]");
-                }
+        if (collecteEnCours) {
+            Alert.showInfoAlert("Information", "Une collecte est déjà en cours");
+            return;
+        }
+        collecteEnCours = true;
+
+        Task<Void> collecteTask = new Task<Void>() {
+            @Override
+            protected Void call() {
+                collecterArticles();
+                return null;
+            }
+            @Override
+            protected void succeeded() {
+                collecteEnCours = false;
             }
-            jsonBuilder.append("}}");
+            @Override
+            protected void failed() {
+                collecteEnCours = false;
+                Alert.showErrorAlert("Erreur", "Erreur lors du chargement des articles: " + getException().getMessage());
+            }
+        };
 
-            String finalJson = jsonBuilder.toString();
-            System.out.println("DEBUG - JSON final construit (début): " + finalJson.substring(0, Math.min(200, finalJson.length())) + "...");
-            System.out.println("DEBUG - Taille du JSON: " + finalJson.length() + " caractères");
-            
+        Thread collecteThread = new Thread(collecteTask);
+        collecteThread.setDaemon(true);
+        collecteThread.setName("Collecte-Articles-Thread");
+        collecteThread.start();
+    }
+
+    // Exécutée hors du thread JavaFX : les alertes passent par Platform.runLater
+    private void collecterArticles() {
+        try {
+            List<String> villes = getVillesDistinctFromUsers();
             if (villes.isEmpty()) {
-                System.out.println("DEBUG - Aucune ville trouvée, création JSON vide");
-                Alert.showWarningAlert("Information", "Aucune ville trouvée dans la base d'utilisateurs");
+                System.out.println("DEBUG - Aucune ville trouvée");
+                Platform.runLater(() -> Alert.showWarningAlert("Information", "Aucune ville trouvée dans la base d'utilisateurs"));
                 return;
             }
-            
-            // Validation basique du JSON
-            if (!finalJson.startsWith("{") || !finalJson.endsWith("}")) {
-                System.err.println("DEBUG - JSON malformé: ne commence pas par { ou ne finit pas par }");
-                Alert.showErrorAlert("Erreur", "Données JSON malformées");
-                return;
-            }
-            
-            // Utiliser des guillemets simples pour éviter les conflits avec les guillemets doubles du JSON
-            try {
-                System.out.println("DEBUG - JSON original: " + finalJson.substring(0, Math.min(200, finalJson.length())) + "...");
-                System.out.println("DEBUG - Taille JSON: " + finalJson.length() + " caractères");
-                
-                // Entourer le JSON avec des guillemets simples pour éviter tout problème d'échappement
-                String mongoResult = BddNew.requestWithDebug("mongo", "INSERT INTO news_collection VALUES_JSON ('" + finalJson.replace("'", "\\'") + "')");
-                System.out.println("DEBUG - Résultat MongoDB: " + mongoResult);
-                
-                if (mongoResult != null && !mongoResult.startsWith("erreur:") && !mongoResult.startsWith("Erreur")) {
-                    Alert.showSuccessAlert("Succès", 
-                        "Articles sauvegardés dans MongoDB pour " + villes.size() + " ville(s)\n" +
-                        "Total d'articles: " + articles.size());
-                } else {
-                    System.err.println("DEBUG - Échec sauvegarde MongoDB: " + mongoResult);
-                    
-                    // Messages d'erreur plus spécifiques
-                    String errorMsg = "Échec de la sauvegarde dans MongoDB";
-                    if (mongoResult != null) {
-                        if (mongoResult.contains("JSON")) {
-                            errorMsg += "\nErreur de traitement JSON";
-                        } else if (mongoResult.contains("JSON")) {
-                            errorMsg += "\nErreur de parsing JSON";
-                        } else if (mongoResult.contains("connexion")) {
-                            errorMsg += "\nProblème de connexion à la base de données";
+
+            // Les villes sont collectées en parallèle ; chacune est sauvegardée dès que ses articles sont prêts
+            List<String> echecs = new ArrayList<>();
+            Map<String, List<Article>> articlesParVille = NewsPipeline.collect(villes, LIMITE_ARTICLES,
+                    (ville, articlesVille) -> {
+                        String mongoResult = sauvegarderVille(ville, articlesVille);
+                        if (mongoResult == null || mongoResult.startsWith("erreur:") || mongoResult.startsWith("Erreur")) {
+                            echecs.add(ville + ": " + mongoResult);
                         }
-                        errorMsg += "\nDétails: " + mongoResult;
-                    }
-                    
-                    Alert.showErrorAlert("Erreur", errorMsg);
+                    });
+
+            articles = new ArrayList<>();
+            int villesSauvegardees = 0;
+            for (List<Article> articlesVille : articlesParVille.values()) {
+                articles.addAll(articlesVille);
+                if (!articlesVille.isEmpty()) {
+                    villesSauvegardees++;
+                }
+            }
+            villesSauvegardees -= echecs.size();
+
+            if (echecs.isEmpty()) {
+                int totalArticles = articles.size();
+                int totalVilles = villesSauvegardees;
+                Platform.runLater(() -> Alert.showSuccessAlert("Succès",
+                    "Articles sauvegardés dans MongoDB pour " + totalVilles + " ville(s)\n" +
+                    "Articles nouveaux ou modifiés: " + totalArticles));
+            } else {
+                System.err.println("DEBUG - Échec sauvegarde MongoDB: " + echecs);
+
+                // Messages d'erreur plus spécifiques
+                String errorMsg = "Échec de la sauvegarde dans MongoDB pour " + echecs.size() + " ville(s)";
+                String details = String.join("\n", echecs);
+                if (details.contains("JSON")) {
+                    errorMsg += "\nErreur de traitement JSON";
+                } else if (details.contains("connexion")) {
+                    errorMsg += "\nProblème de connexion à la base de données";
                 }
-            } catch (Exception jsonEx) {
-                System.err.println("DEBUG - Erreur lors du traitement JSON: " + jsonEx.getMessage());
-                Alert.showErrorAlert("Erreur", "Erreur lors du traitement JSON: " + jsonEx.getMessage());
+                errorMsg += "\nDétails: " + details;
+
+                String message = errorMsg;
+                Platform.runLater(() -> Alert.showErrorAlert("Erreur", message));
             }
         } catch (Exception e) {
             System.err.println("DEBUG - Exception dans chargerArticles: " + e.getMessage());
             e.printStackTrace();
-            Alert.showErrorAlert("Erreur", "Erreur lors du chargement des articles: " + e.getMessage());
+            Platform.runLater(() -> Alert.showErrorAlert("Erreur", "Erreur lors du chargement des articles: " + e.getMessage()));
         }
     }
 
-    private String escapeJson(String text) {
-        if (text == null) return "";
-        // Échappement JSON complet pour insertion directe
-        return text.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t")
-                  .replace("\b", "\\b")
-                  .replace("\f", "\\f");
-    }
+    /**
+     * Étape de sauvegarde : un document par article, avec sa ville et son empreinte
+     * Écriture en masse avec upsert sur (fingerprint, ville) : un article modifié remplace son document précédent
+     * L'index n'est mis à jour qu'après succès
+     */
+    private String sauvegarderVille(String ville, List<Article> articlesVille) {
+        String villeCle = ville.toLowerCase();
+        List<Map<String, Object>> documents = new ArrayList<>();
+        int modifies = 0;
+        for (Article article : articlesVille) {
+            ArticleFingerprint fingerprint = ArticleFingerprint.of(article);
+            if (ArticleIndex.check(villeCle, fingerprint) == ArticleIndex.State.CHANGED) {
+                modifies++;
+            }
+            Map<String, Object> document = new LinkedHashMap<>();
+            document.put("ville", villeCle);
+            document.put("fingerprint", fingerprint.id());
+            document.put("contentHash", fingerprint.contentHash());
+            document.put("titre", Objects.toString(article.getTitre(), ""));
+            document.put("description", Objects.toString(article.getDescription(), ""));
+            document.put("url", Objects.toString(article.getUrl(), ""));
+            document.put("source", Objects.toString(article.getSource(), ""));
+            document.put("datePublication", Objects.toString(article.getDatePublication(), ""));
+            document.put("imageUrl", Objects.toString(article.getImageUrl(), ""));
+            document.put("tags", article.getTags() != null ? article.getTags() : List.of());
+            document.put("sentiment", article.getSentiment());
+            documents.add(document);
+        }
+        System.out.println("DEBUG - " + ville + ": " + (documents.size() - modifies) + " nouveau(x), " + modifies + " modifié(s)");
 
+        String mongoResult = BddNew.bulkWrite("mongo", "news_collection", List.of("fingerprint", "ville"), documents);
+        System.out.println("DEBUG - Résultat MongoDB pour " + ville + ": " + mongoResult);
+        if (mongoResult != null && !mongoResult.startsWith("erreur:") && !mongoResult.startsWith("Erreur")) {
+            ArticleIndex.record(villeCle, articlesVille);
+        }
+        return mongoResult;
+    }
 
     private List<String> getVillesDistinctFromUsers() {
         try {
-            String usersResult = BddNew.request("postgres", "SELECT * FROM users");
-            System.out.println("DEBUG - Réponse BDD brute: " + usersResult);
-            
-            if (usersResult == null || usersResult.startsWith("erreur:")) {
-                System.out.println("DEBUG - Pas de données ou erreur: " + usersResult);
+            // Dédoublonnage et tri faits par la base : seules les villes distinctes sont transférées
+            // Le LinkedHashSet ne sert plus qu'à fusionner les variantes avec espaces, dans l'ordre reçu
+            LinkedHashSet<String> villesUniques = new LinkedHashSet<>();
+            String erreur = BddNew.requestStream("postgres",
+                    "SELECT DISTINCT ville FROM users WHERE ville IS NOT NULL ORDER BY ville",
+                    RowMapper.column("ville"), ville -> {
+                if (ville != null && !ville.trim().isEmpty()) {
+                    villesUniques.add(ville.trim());
+                }
+            });
+
+            if (erreur != null) {
+                System.out.println("DEBUG - Pas de données ou erreur: " + erreur);
                 return new ArrayList<>();
             }
 
-            HashSet<String> villesUniques = new HashSet<>();
-            String[] lignes = usersResult.split("\n");
-            System.out.println("DEBUG - Nombre de lignes: " + lignes.length);
-            
-            for (int i = 0; i < lignes.length; i++) {
-                String ligne = lignes[i];
-                System.out.println("DEBUG - Ligne " + i + ": " + ligne);
-                
-                if (ligne.contains("\"ville\":")) {
-                    System.out.println("DEBUG - Ligne contient 'ville'");
-                    
-                    // D'abord vérifier si c'est null
-                    if (ligne.contains("\"ville\": null") || ligne.contains("\"ville\":null")) {
-                        System.out.println("DEBUG - Ville est null, ignoré");
-                        continue;
-                    }
-                    
-                    // Recherche plus robuste du champ ville pour les valeurs non-null
-                    String pattern = "\"ville\": \"";
-                    int startIndex = ligne.indexOf(pattern);
-                    if (startIndex == -1) {
-                        // Essayer sans espace
-                        pattern = "\"ville\":\"";
-                        startIndex = ligne.indexOf(pattern);
-                    }
-                    
-                    if (startIndex != -1) {
-                        int valueStart = startIndex + pattern.length();
-                        int valueEnd = ligne.indexOf("\"", valueStart);
-                        if (valueEnd != -1) {
-                            String ville = ligne.substring(valueStart, valueEnd).trim();
-                            System.out.println("DEBUG - Ville extraite: '" + ville + "'");
-                            if (!ville.isEmpty()) {
-                                villesUniques.add(ville);
-                            }
-                        } else {
-                            System.out.println("DEBUG - Fin de guillemet non trouvée");
-                        }
-                    } else {
-                        System.out.println("DEBUG - Pattern ville non trouvé");
-                    }
-                }
-            }
-            
             System.out.println("DEBUG - Villes uniques trouvées: " + villesUniques);
             return new ArrayList<>(villesUniques);
         } catch (Exception e) {
@@ -46,6 +46,33 @@ public class User {
         this.timezone = "Europe/Paris";
     }
 
+    // Copie champ par champ (tous les champs sont immuables)
+    public User(User other) {
+        this.id = other.id;
+        this.tag = other.tag;
+        this.email = other.email;
+        this.password = other.password;
+        this.pseudo = other.pseudo;
+        this.avatar = other.avatar;
+        this.bio = other.bio;
+        this.isVerified = other.isVerified;
+        this.isActive = other.isActive;
+        this.role = other.role;
+        this.lastLogin = other.lastLogin;
+        this.passwordResetCode = other.passwordResetCode;
+        this.preferences = other.preferences;
+        this.phoneNumber = other.phoneNumber;
+        this.location = other.location;
+        this.timezone = other.timezone;
+        this.language = other.language;
+        this.conversationCount = other.conversationCount;
+        this.friendCount = other.friendCount;
+        this.refreshToken = other.refreshToken;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.deletedAt = other.deletedAt;
+    }
+
     // Getters et Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -5,15 +5,24 @@ module com.MonVoisin {
     requires jakarta.mail;
     requires io.github.cdimascio.dotenv.java;
     requires java.net.http;
+    requires java.management;
     requires mysql.connector.j;
     requires jbcrypt;
     requires org.jsoup;
     requires javafx.graphics;
     requires com.fasterxml.jackson.databind;
+    requires com.fasterxml.jackson.dataformat.cbor;
     requires org.seleniumhq.selenium.support;
     requires org.seleniumhq.selenium.chrome_driver;
     requires io.github.bonigarcia.webdrivermanager;
     requires com.google.gson;
+    requires java.sql;
+    requires org.postgresql.jdbc;
+    requires com.zaxxer.hikari;
+    requires org.mongodb.driver.sync.client;
+    requires org.mongodb.driver.core;
+    requires org.mongodb.bson;
+    requires org.neo4j.driver;
 
     uses plugin.Plugin;
 
@@ -0,0 +1,98 @@
+package repository;
+
+import services.bdd.BddNew;
+import services.bdd.QueryPlanCache;
+import services.env.Env;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écriture différée de lastLogin / updatedAt : une seule mise à jour en attente par utilisateur (la plus récente)
+ * Les mises à jour partent en un lot toutes les USER_TOUCH_FLUSH_MS, ou dès USER_TOUCH_BATCH_SIZE utilisateurs en attente
+ * Le lot en attente est écrit avant la fermeture du moteur BDD
+ */
+public class LastLoginWriter {
+
+    private static final String DATABASE = "postgres";
+    private static final String QUERY = "UPDATE users SET lastLogin = ?, updatedAt = ? WHERE id = ?";
+
+    private static final long FLUSH_MILLIS = Long.parseLong(Env.dotenv.get("USER_TOUCH_FLUSH_MS", "5000"));
+    private static final int BATCH_SIZE = Integer.parseInt(Env.dotenv.get("USER_TOUCH_BATCH_SIZE", "50"));
+
+    private static final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "user-touch-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        writer.scheduleWithFixedDelay(LastLoginWriter::flush, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        BddNew.beforeClose(LastLoginWriter::flush);
+    }
+
+    /**
+     * Enregistre la connexion, écrite au prochain lot
+     */
+    public static void touch(Long userId, LocalDateTime at) {
+        if (userId == null) {
+            return;
+        }
+        pending.put(userId, at);
+        if (pending.size() >= BATCH_SIZE) {
+            writer.execute(LastLoginWriter::flush);
+        }
+    }
+
+    public static int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Écrit les mises à jour en attente en un seul lot ; celles en échec sont remises en attente
+     */
+    public static synchronized void flush() {
+        List<Long> ids = new ArrayList<>();
+        List<LocalDateTime> dates = new ArrayList<>();
+        List<String> queries = new ArrayList<>();
+        for (Long id : new ArrayList<>(pending.keySet())) {
+            LocalDateTime at = pending.remove(id);
+            if (at != null) {
+                ids.add(id);
+                dates.add(at);
+                queries.add(QueryPlanCache.get(QUERY).render(at, at, id));
+            }
+        }
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        List<String> results;
+        try {
+            results = BddNew.requestBatch(DATABASE, queries);
+        } catch (RuntimeException e) {
+            System.out.println("erreur lors de la mise a jour de lastlogin: " + e.getMessage());
+            results = List.of();
+        }
+
+        int failed = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            String result = i < results.size() ? results.get(i) : null;
+            if (result == null || result.startsWith("erreur:") || result.startsWith("Erreur")) {
+                // Une connexion plus récente arrivée entre-temps reste prioritaire
+                pending.putIfAbsent(ids.get(i), dates.get(i));
+                failed++;
+            }
+        }
+        System.out.println("🕒 Dernières connexions écrites: " + (ids.size() - failed) + "/" + ids.size()
+                + (failed > 0 ? " (" + failed + " remise(s) en attente)" : ""));
+    }
+}
@@ -0,0 +1,92 @@
+package repository;
+
+import model.User;
+import services.env.Env;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU borné des utilisateurs actifs, indexé par email, avec expiration (USER_CACHE_TTL_SECONDS)
+ * Les utilisateurs sont gardés déjà convertis par UserRowMapper ; chaque lecture rend une copie modifiable sans effet sur le cache
+ * Seuls les utilisateurs trouvés sont conservés, un email inconnu est relu à chaque tentative
+ */
+public class UserCache {
+
+    private static final int CAPACITY = Integer.parseInt(Env.dotenv.get("USER_CACHE_SIZE", "1000"));
+    private static final long TTL_MILLIS = Long.parseLong(Env.dotenv.get("USER_CACHE_TTL_SECONDS", "300")) * 1000;
+
+    private record Entry(User user, long expiresAt) {}
+
+    private static final Map<String, Entry> users = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    private static long hits = 0;
+    private static long misses = 0;
+
+    /**
+     * Copie de l'utilisateur en cache pour cet email, null si absent ou expiré
+     */
+    public static User get(String email) {
+        synchronized (users) {
+            Entry entry = users.get(email);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                hits++;
+                return new User(entry.user());
+            }
+            if (entry != null) {
+                users.remove(email);
+            }
+            misses++;
+            return null;
+        }
+    }
+
+    public static void put(String email, User user) {
+        if (TTL_MILLIS <= 0 || user == null) {
+            return;
+        }
+        synchronized (users) {
+            // Copie : l'appelant peut modifier l'objet qu'il a passé
+            users.put(email, new Entry(new User(user), System.currentTimeMillis() + TTL_MILLIS));
+        }
+    }
+
+    /**
+     * Reporte dans l'utilisateur en cache une connexion dont l'écriture en base est différée
+     */
+    public static void touch(String email, LocalDateTime at) {
+        synchronized (users) {
+            Entry entry = users.get(email);
+            if (entry != null) {
+                entry.user().setLastLogin(at);
+                entry.user().setUpdatedAt(at);
+            }
+        }
+    }
+
+    public static void invalidate(String email) {
+        synchronized (users) {
+            users.remove(email);
+        }
+    }
+
+    public static void clear() {
+        synchronized (users) {
+            users.clear();
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    public static String getStats() {
+        synchronized (users) {
+            return "Utilisateurs en cache: " + users.size() + "/" + CAPACITY + ", hits: " + hits + ", misses: " + misses;
+        }
+    }
+}
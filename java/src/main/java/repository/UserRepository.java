@@ -1,145 +1,100 @@
 package repository;
 
 import model.User;
+import services.bdd.BddDispatcher;
 import services.bdd.BddNew;
-import services.security.Security;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import services.security.AuthenticationService;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 
 public class UserRepository {
 
     private static final String DATABASE = "postgres";
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-    private static final int MAX_TAG_LENGTH = 20;
 
+    /**
+     * Connexion bloquante : null si les identifiants sont incorrects, si la tentative est refusée ou en cas d'erreur
+     */
     public static User connect(String email, String password) {
-        if (email == null || password == null || email.trim().isEmpty() || password.trim().isEmpty()) {
-            return null;
-        }
-
         try {
-            String query = String.format(
-                    "SELECT * FROM users WHERE email = '%s' AND isActive = TRUE AND deletedAt IS NULL",
-                    email.replace("'", "''")
-            );
-            System.out.println("requete: "+query);
-            String result = BddNew.request(DATABASE, query);
-            System.out.println("retour: "+result);
-
-            if (result == null || result.contains("erreur") || result.trim().isEmpty() || result.equals("[]")) {
-                return null;
-            }
-
-            // parser le résultat JSON
-            System.out.println("parsage du json en cours");
-            JsonNode jsonResult = objectMapper.readTree(result);
-            if (jsonResult.isArray() && jsonResult.size() > 0) {
-                JsonNode userNode = jsonResult.get(0);
-                String storedHash = userNode.get("password").asText();
-
-                System.out.println("verrification du mot de passe: "+password+"avec le hash: "+storedHash);
-                if (Security.checkBcrypt(password, storedHash)) {
-                    System.out.println("mot de passe correct");
-                    User user = mapJsonToUser(userNode);
-
-                    // Mettre à jour la date de dernière connexion
-                    updateLastLogin(user.getId());
-                    user.setLastLogin(LocalDateTime.now());
-
-                    updateLastLogin(user.getId());
-
-                    return user;
-                }
-                System.out.println("mot de passe incorrect");
-            }
-
-            return null;
-
+            return connectAsync(email, password).join();
         } catch (Exception e) {
             System.out.println("erreur lors de la connexion: " + e.getMessage());
             return null;
         }
     }
 
-
-    private static void updateLastLogin(Long userId) {
-        try {
-            String query = String.format(
-                    "UPDATE users SET lastLogin = CURRENT_TIMESTAMP, updatedAt = CURRENT_TIMESTAMP WHERE id = %d",
-                    userId
-            );
-
-            System.out.println(query);
-            BddNew.request(DATABASE, query);
-        } catch (Exception e) {
-            System.out.println("erreur lors de la mise a jour de lastlogin: " + e.getMessage());
+    /**
+     * Retire l'utilisateur du cache : à appeler après toute écriture sur sa ligne (hors dernière connexion)
+     */
+    public static void invalidate(String email) {
+        if (email != null) {
+            UserCache.invalidate(email);
         }
     }
 
-    private static User mapJsonToUser(JsonNode node) {
-        User user = new User();
-
-        user.setId(node.has("id") ? node.get("id").asLong() : null);
-        user.setTag(node.has("tag") && !node.get("tag").isNull() ? node.get("tag").asText() : null);
-        user.setEmail(node.has("email") && !node.get("email").isNull() ? node.get("email").asText() : null);
-        user.setPassword(node.has("password") && !node.get("password").isNull() ? node.get("password").asText() : null);
-        user.setPseudo(node.has("pseudo") && !node.get("pseudo").isNull() ? node.get("pseudo").asText() : null);
-        user.setAvatar(node.has("avatar") && !node.get("avatar").isNull() ? node.get("avatar").asText() : null);
-        user.setBio(node.has("bio") && !node.get("bio").isNull() ? node.get("bio").asText() : null);
-        user.setIsVerified(node.has("isverified") ? node.get("isverified").asBoolean() : false);
-        user.setIsActive(node.has("isactive") ? node.get("isactive").asBoolean() : true);
-        user.setRole(node.has("role") && !node.get("role").isNull() ? node.get("role").asText() : "USER");
-        user.setPasswordResetCode(node.has("passwordresetcode") && !node.get("passwordresetcode").isNull() ?
-                node.get("passwordresetcode").asText() : null);
-        user.setPreferences(node.has("preferences") && !node.get("preferences").isNull() ?
-                node.get("preferences").asText() : null);
-        user.setPhoneNumber(node.has("phonenumber") && !node.get("phonenumber").isNull() ?
-                node.get("phonenumber").asText() : null);
-        user.setLocation(node.has("location") && !node.get("location").isNull() ?
-                node.get("location").asText() : null);
-        user.setTimezone(node.has("timezone") && !node.get("timezone").isNull() ?
-                node.get("timezone").asText() : null);
-        user.setLanguage(node.has("language") && !node.get("language").isNull() ?
-                node.get("language").asText() : null);
-        user.setConversationCount(node.has("conversationcount") ? node.get("conversationcount").asInt() : 0);
-        user.setFriendCount(node.has("friendcount") ? node.get("friendcount").asInt() : 0);
-        user.setRefreshToken(node.has("refreshtoken") && !node.get("refreshtoken").isNull() ?
-                node.get("refreshtoken").asText() : null);
+    /**
+     * Connexion hors du thread JavaFX : lecture sur l'exécuteur BDD, vérification sur le pool bcrypt
+     * Échoue avec LoginThrottledException si AuthenticationService refuse la tentative
+     */
+    public static CompletableFuture<User> connectAsync(String email, String password) {
+        if (email == null || password == null || email.trim().isEmpty() || password.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-        // Parse dates avec gestion robuste des null
-        try {
-            if (node.has("lastlogin") && !node.get("lastlogin").isNull()) {
-                String dateStr = node.get("lastlogin").asText();
-                if (dateStr != null && !dateStr.trim().isEmpty()) {
-                    user.setLastLogin(LocalDateTime.parse(dateStr.replace(" ", "T")));
-                }
-            }
-            if (node.has("createdat") && !node.get("createdat").isNull()) {
-                String dateStr = node.get("createdat").asText();
-                if (dateStr != null && !dateStr.trim().isEmpty()) {
-                    user.setCreatedAt(LocalDateTime.parse(dateStr.replace(" ", "T")));
-                }
-            }
-            if (node.has("updatedat") && !node.get("updatedat").isNull()) {
-                String dateStr = node.get("updatedat").asText();
-                if (dateStr != null && !dateStr.trim().isEmpty()) {
-                    user.setUpdatedAt(LocalDateTime.parse(dateStr.replace(" ", "T")));
-                }
-            }
-            if (node.has("deletedat") && !node.get("deletedat").isNull()) {
-                String dateStr = node.get("deletedat").asText();
-                if (dateStr != null && !dateStr.trim().isEmpty()) {
-                    user.setDeletedAt(LocalDateTime.parse(dateStr.replace(" ", "T")));
-                }
-            }
-        } catch (Exception e) {
-            System.out.println("erreur lors du parsing des dates: " + e.getMessage());
+        User cached = UserCache.get(email);
+        if (cached != null) {
+            return authenticate(email, password, cached, true);
         }
+        return BddDispatcher.submit(DATABASE, () -> findUser(email))
+                .thenCompose(user -> authenticate(email, password, user, false));
+    }
+
+    private static CompletableFuture<User> authenticate(String email, String password, User user, boolean cached) {
+        // Compte inconnu : vérifié quand même, pour que la tentative compte comme un échec
+        return AuthenticationService.verifyAsync(email, password, user == null ? null : user.getPassword())
+                .thenCompose(valid -> {
+                    if (valid) {
+                        return CompletableFuture.completedFuture(loggedIn(email, user));
+                    }
+                    if (cached) {
+                        // Le mot de passe a pu changer depuis la mise en cache : relecture, nouvelle vérification si le hash a changé
+                        UserCache.invalidate(email);
+                        return BddDispatcher.submit(DATABASE, () -> findUser(email)).thenCompose(reloaded -> {
+                            if (reloaded != null && !Objects.equals(reloaded.getPassword(), user.getPassword())) {
+                                return authenticate(email, password, reloaded, false);
+                            }
+                            System.out.println("mot de passe incorrect");
+                            return CompletableFuture.completedFuture(null);
+                        });
+                    }
+                    System.out.println("mot de passe incorrect");
+                    return CompletableFuture.completedFuture(null);
+                });
+    }
 
+    // Date de dernière connexion écrite en différé, reportée tout de suite dans le cache
+    private static User loggedIn(String email, User user) {
+        System.out.println("mot de passe correct");
+        LocalDateTime now = LocalDateTime.now();
+        LastLoginWriter.touch(user.getId(), now);
+        UserCache.touch(email, now);
+        user.setLastLogin(now);
+        user.setUpdatedAt(now);
         return user;
     }
 
-}
\ No newline at end of file
+    // Ligne convertie directement depuis le flux JSON par UserRowMapper, puis mise en cache
+    private static User findUser(String email) {
+        String query = "SELECT * FROM users WHERE email = ? AND isActive = TRUE AND deletedAt IS NULL";
+        List<User> users = BddNew.requestList(DATABASE, query, UserRowMapper.INSTANCE, email);
+        if (users.isEmpty()) {
+            return null;
+        }
+        UserCache.put(email, users.get(0));
+        return users.get(0);
+    }
+}
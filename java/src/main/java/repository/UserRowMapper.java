@@ -0,0 +1,86 @@
+package repository;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import model.User;
+import services.bdd.RowMapper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Construit un User depuis une ligne de la table users, champ par champ dans l'ordre du flux JSON
+ * PostgreSQL renvoie les colonnes non quotées en minuscules (isverified, lastlogin...)
+ */
+public class UserRowMapper implements RowMapper<User> {
+
+    public static final UserRowMapper INSTANCE = new UserRowMapper();
+
+    @Override
+    public User mapRow(JsonParser parser) throws IOException {
+        User user = new User();
+        // Valeurs par défaut quand la colonne est absente
+        user.setIsVerified(false);
+        user.setIsActive(true);
+        user.setRole("USER");
+        user.setConversationCount(0);
+        user.setFriendCount(0);
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            boolean isNull = token == JsonToken.VALUE_NULL;
+            switch (field.toLowerCase()) {
+                case "id" -> user.setId(isNull ? null : parser.getValueAsLong());
+                case "tag" -> user.setTag(text(parser, token));
+                case "email" -> user.setEmail(text(parser, token));
+                case "password" -> user.setPassword(text(parser, token));
+                case "pseudo" -> user.setPseudo(text(parser, token));
+                case "avatar" -> user.setAvatar(text(parser, token));
+                case "bio" -> user.setBio(text(parser, token));
+                case "isverified" -> user.setIsVerified(parser.getValueAsBoolean(false));
+                case "isactive" -> user.setIsActive(parser.getValueAsBoolean(false));
+                case "role" -> user.setRole(isNull ? "USER" : parser.getValueAsString());
+                case "passwordresetcode" -> user.setPasswordResetCode(text(parser, token));
+                case "preferences" -> user.setPreferences(text(parser, token));
+                case "phonenumber" -> user.setPhoneNumber(text(parser, token));
+                case "location" -> user.setLocation(text(parser, token));
+                case "timezone" -> user.setTimezone(text(parser, token));
+                case "language" -> user.setLanguage(text(parser, token));
+                case "conversationcount" -> user.setConversationCount(parser.getValueAsInt(0));
+                case "friendcount" -> user.setFriendCount(parser.getValueAsInt(0));
+                case "refreshtoken" -> user.setRefreshToken(text(parser, token));
+                case "lastlogin" -> user.setLastLogin(date(parser, token));
+                case "createdat" -> user.setCreatedAt(date(parser, token));
+                case "updatedat" -> user.setUpdatedAt(date(parser, token));
+                case "deletedat" -> user.setDeletedAt(date(parser, token));
+                default -> parser.skipChildren();
+            }
+        }
+        return user;
+    }
+
+    // Les objets (preferences en jsonb) sont conservés sous forme de texte JSON
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            return parser.readValueAsTree().toString();
+        }
+        return parser.getValueAsString();
+    }
+
+    private static LocalDateTime date(JsonParser parser, JsonToken token) throws IOException {
+        String value = text(parser, token);
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.replace(" ", "T"));
+        } catch (Exception e) {
+            System.out.println("erreur lors du parsing des dates: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package services.ai;
+
+import services.env.Env;
+
+import java.io.IOException;
+
+/**
+ * Client d'IA générative utilisé pour l'enrichissement des articles
+ * Le backend est choisi par AI_BACKEND : "http" (serveur local type Ollama, par défaut) ou "process" (processus résident)
+ */
+public interface AIClient extends AutoCloseable {
+
+    /**
+     * Envoie le prompt et retourne la réponse complète du modèle
+     */
+    String complete(String prompt) throws IOException, InterruptedException;
+
+    /**
+     * Prépare le backend (connexion, modèle, processus) sans attendre de réponse utile ; rien par défaut
+     */
+    default void warmUp() throws IOException, InterruptedException {}
+
+    /**
+     * Compteurs d'appels et de latence, pour les journaux
+     */
+    String getMetrics();
+
+    @Override
+    void close();
+
+    /**
+     * Client partagé par toute l'application, créé au premier appel
+     */
+    static AIClient shared() {
+        return Holder.INSTANCE;
+    }
+
+    final class Holder {
+        private static final AIClient INSTANCE = create(Env.dotenv.get("AI_BACKEND", "http"));
+
+        private Holder() {}
+
+        private static AIClient create(String backend) {
+            AIClient client = switch (backend.toLowerCase()) {
+                case "http" -> new HttpAIClient();
+                case "process" -> new ResidentProcessAIClient();
+                default -> throw new IllegalArgumentException("AI_BACKEND inconnu: " + backend);
+            };
+            Runtime.getRuntime().addShutdownHook(new Thread(client::close, "ai-shutdown"));
+            return client;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package services.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import services.env.Env;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Backend HTTP : API /api/generate d'un serveur Ollama local (AI_HTTP_URL, OLLAMA_MODEL)
+ * Les connexions HTTP/1.1 sont gardées ouvertes entre les appels ; l'URL peut pointer vers un bouchon local
+ */
+public class HttpAIClient extends MeteredAIClient {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final String model;
+
+    public HttpAIClient() {
+        this(Env.dotenv.get("AI_HTTP_URL", "http://localhost:" + Env.dotenv.get("OLLAMA_PORT", "11434")),
+                Env.dotenv.get("OLLAMA_MODEL", "mistral"));
+    }
+
+    public HttpAIClient(String baseUrl, String model) {
+        super("http");
+        this.endpoint = URI.create(baseUrl.replaceAll("/+$", "") + "/api/generate");
+        this.model = model;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    protected String send(String prompt, Duration timeout) throws IOException, InterruptedException, TimeoutException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", model);
+        body.put("prompt", prompt);
+        body.put("stream", false);
+
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (HttpTimeoutException e) {
+            throw new TimeoutException(e.getMessage());
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() + " de " + endpoint + ": " + response.body());
+        }
+        JsonNode reponse = objectMapper.readTree(response.body()).get("response");
+        if (reponse == null || !reponse.isTextual()) {
+            throw new IOException("réponse sans champ \"response\" de " + endpoint);
+        }
+        return reponse.asText();
+    }
+
+    /**
+     * Un prompt vide fait charger le modèle en mémoire par Ollama et ouvre la connexion persistante
+     */
+    @Override
+    public void warmUp() throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", model);
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() + " de " + endpoint + ": " + response.body());
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,65 @@
+package services.ai;
+
+import services.env.Env;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Socle commun des backends : délai par appel (AI_TIMEOUT_SECONDS), appels simultanés bornés (AI_MAX_CONCURRENT)
+ * et mesure de la latence
+ */
+public abstract class MeteredAIClient implements AIClient {
+
+    protected static final Duration TIMEOUT = Duration.ofSeconds(Long.parseLong(Env.dotenv.get("AI_TIMEOUT_SECONDS", "60")));
+    protected static final int MAX_CONCURRENT = Integer.parseInt(Env.dotenv.get("AI_MAX_CONCURRENT", "2"));
+
+    private final String name;
+    private final Semaphore permits = new Semaphore(MAX_CONCURRENT, true);
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    protected MeteredAIClient(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public final String complete(String prompt) throws IOException, InterruptedException {
+        permits.acquire();
+        long debut = System.nanoTime();
+        try {
+            return send(prompt, TIMEOUT);
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            throw new IOException("pas de réponse de l'IA après " + TIMEOUT.toSeconds() + " s", e);
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            long millis = (System.nanoTime() - debut) / 1_000_000;
+            calls.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+            permits.release();
+        }
+    }
+
+    /**
+     * Appel effectif au backend, au plus MAX_CONCURRENT à la fois
+     */
+    protected abstract String send(String prompt, Duration timeout) throws IOException, InterruptedException, TimeoutException;
+
+    @Override
+    public String getMetrics() {
+        long n = calls.get();
+        return String.format("IA %s: %d appel(s), %d échec(s), %d délai(s) dépassé(s), latence moyenne %d ms, max %d ms",
+                name, n, failures.get(), timeouts.get(), n == 0 ? 0 : totalMillis.get() / n, maxMillis.get());
+    }
+}
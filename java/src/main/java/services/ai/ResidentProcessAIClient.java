@@ -0,0 +1,171 @@
+package services.ai;
+
+import services.env.Env;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backend processus résident : AI_PROCESS_COMMAND (obligatoire, lancé par bash -c) démarre une fois puis reçoit les prompts
+ * Protocole, identique dans les deux sens : une ligne ASCII donnant la taille en octets, "\n", puis le texte UTF-8
+ * (par exemple "5\nBonjour"), sans séparateur entre deux messages
+ * - stdin : un prompt par message ; stdout : exactement une réponse par prompt, dans l'ordre ; stderr : journaux libres
+ * - le processus traite les prompts les uns après les autres et reste ouvert jusqu'à la fermeture de son entrée
+ * Le CLI tgpt ne parle pas ce protocole : il faut un adaptateur qui garde le modèle chargé entre deux prompts
+ * Jusqu'à AI_MAX_CONCURRENT processus tournent en parallèle ; un processus en erreur ou trop lent est remplacé
+ */
+public class ResidentProcessAIClient extends MeteredAIClient {
+
+    private final String command;
+    private final ConcurrentLinkedQueue<Worker> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger counter = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    public ResidentProcessAIClient() {
+        this(Env.dotenv.get("AI_PROCESS_COMMAND", ""));
+    }
+
+    public ResidentProcessAIClient(String command) {
+        super("processus");
+        if (command == null || command.isBlank()) {
+            throw new IllegalArgumentException("AI_PROCESS_COMMAND doit indiquer la commande du processus IA (AI_BACKEND=process)");
+        }
+        this.command = command;
+    }
+
+    @Override
+    protected String send(String prompt, Duration timeout) throws IOException, InterruptedException, TimeoutException {
+        if (closed) {
+            throw new IOException("client IA fermé");
+        }
+        Worker worker = idle.poll();
+        if (worker == null || !worker.process.isAlive()) {
+            if (worker != null) {
+                worker.destroy();
+            }
+            worker = new Worker(command, counter.incrementAndGet());
+        }
+        try {
+            String reponse = worker.exchange(prompt, timeout);
+            idle.offer(worker);
+            return reponse;
+        } catch (IOException | TimeoutException | InterruptedException | RuntimeException e) {
+            // La réponse en cours peut encore arriver : le flux n'est plus fiable, le processus est abandonné
+            worker.destroy();
+            throw e;
+        }
+    }
+
+    /**
+     * Lance un premier processus pour que le premier prompt n'attende pas son démarrage
+     */
+    @Override
+    public void warmUp() throws IOException {
+        if (!closed && idle.isEmpty()) {
+            idle.offer(new Worker(command, counter.incrementAndGet()));
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Worker worker;
+        while ((worker = idle.poll()) != null) {
+            worker.destroy();
+        }
+    }
+
+    private static class Worker {
+        private final Process process;
+        private final OutputStream stdin;
+        // Réponses lues par le thread lecteur : String, ou IOException si le flux est rompu
+        private final BlockingQueue<Object> replies = new LinkedBlockingQueue<>();
+
+        Worker(String command, int id) throws IOException {
+            this.process = new ProcessBuilder("bash", "-c", command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            this.stdin = new BufferedOutputStream(process.getOutputStream());
+            Thread reader = new Thread(() -> readLoop(new BufferedInputStream(process.getInputStream())), "ai-process-" + id);
+            reader.setDaemon(true);
+            reader.start();
+            System.out.println("🤖 Processus IA démarré (pid " + process.pid() + ")");
+        }
+
+        String exchange(String prompt, Duration timeout) throws IOException, InterruptedException, TimeoutException {
+            byte[] payload = prompt.getBytes(StandardCharsets.UTF_8);
+            stdin.write((payload.length + "\n").getBytes(StandardCharsets.US_ASCII));
+            stdin.write(payload);
+            stdin.flush();
+
+            Object reply = replies.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (reply == null) {
+                throw new TimeoutException("pas de réponse du processus " + process.pid());
+            }
+            if (reply instanceof IOException e) {
+                throw new IOException("processus IA interrompu: " + e.getMessage(), e);
+            }
+            return (String) reply;
+        }
+
+        private void readLoop(InputStream stdout) {
+            try {
+                while (true) {
+                    int length = readLength(stdout);
+                    byte[] payload = stdout.readNBytes(length);
+                    if (payload.length < length) {
+                        throw new IOException("réponse tronquée");
+                    }
+                    replies.offer(new String(payload, StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                replies.offer(e);
+            }
+        }
+
+        private static int readLength(InputStream in) throws IOException {
+            int length = 0;
+            int digits = 0;
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c == -1) {
+                    throw new IOException("fin du flux");
+                }
+                if (c == '\r') {
+                    continue;
+                }
+                if (c < '0' || c > '9' || ++digits > 9) {
+                    throw new IOException("en-tête de trame invalide");
+                }
+                length = length * 10 + (c - '0');
+            }
+            if (digits == 0) {
+                throw new IOException("en-tête de trame vide");
+            }
+            return length;
+        }
+
+        void destroy() {
+            process.destroy();
+            try {
+                if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package services.bdd;
+
+import services.env.Env;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécuteurs dédiés aux requêtes BDD, un par type de base
+ * Chaque exécuteur a un nombre de threads et une file d'attente bornés :
+ * quand la file est pleine, la requête est refusée au lieu de s'accumuler
+ */
+public class BddDispatcher {
+
+    private static final int DEFAULT_CONCURRENCY = Integer.parseInt(Env.dotenv.get("BDD_CONCURRENCY", "4"));
+    private static final int QUEUE_SIZE = Integer.parseInt(Env.dotenv.get("BDD_QUEUE_SIZE", "100"));
+
+    private static final Map<String, ThreadPoolExecutor> executors = new ConcurrentHashMap<>();
+
+    /**
+     * Exécute la tâche sur l'exécuteur du type de base
+     * Annuler le future retire la tâche de la file ou interrompt le thread qui l'exécute
+     */
+    public static <T> CompletableFuture<T> submit(String databaseType, Callable<T> task) {
+        DispatchedFuture<T> future = new DispatchedFuture<>();
+        try {
+            future.task = getExecutor(databaseType).submit(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new RejectedExecutionException(
+                    "File d'attente BDD pleine pour " + databaseType + " (" + QUEUE_SIZE + " requêtes en attente)", e));
+        }
+        return future;
+    }
+
+    /**
+     * Nombre de requêtes en attente pour un type de base
+     */
+    public static int getQueuedCount(String databaseType) {
+        ThreadPoolExecutor executor = executors.get(normalize(databaseType));
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    public static void shutdown() {
+        for (ThreadPoolExecutor executor : executors.values()) {
+            executor.shutdownNow();
+        }
+        executors.clear();
+    }
+
+    private static ThreadPoolExecutor getExecutor(String databaseType) {
+        return executors.computeIfAbsent(normalize(databaseType), BddDispatcher::createExecutor);
+    }
+
+    // BDD_CONCURRENCY_POSTGRES, BDD_CONCURRENCY_MONGO... surchargent BDD_CONCURRENCY
+    private static ThreadPoolExecutor createExecutor(String databaseType) {
+        int concurrency = Integer.parseInt(Env.dotenv.get("BDD_CONCURRENCY_" + databaseType.toUpperCase(),
+                String.valueOf(DEFAULT_CONCURRENCY)));
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE), r -> {
+                    Thread thread = new Thread(r, "bdd-" + databaseType + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        System.out.println("🔧 Exécuteur BDD " + databaseType + " créé (" + concurrency + " thread(s), file de " + QUEUE_SIZE + ")");
+        return executor;
+    }
+
+    // Les alias d'un même moteur partagent la même limite
+    private static String normalize(String databaseType) {
+        if (databaseType == null) {
+            return "inconnu";
+        }
+        return switch (databaseType.toLowerCase()) {
+            case "sql", "postgres" -> "postgres";
+            case "neo", "neo4j" -> "neo4j";
+            default -> databaseType.toLowerCase();
+        };
+    }
+
+    private static class DispatchedFuture<T> extends CompletableFuture<T> {
+        private volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> current = task;
+            if (cancelled && current != null) {
+                current.cancel(true);
+                for (ThreadPoolExecutor executor : executors.values()) {
+                    executor.remove((Runnable) current);
+                }
+            }
+            return cancelled;
+        }
+    }
+}
@@ -1,27 +1,71 @@
 package services.bdd;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import services.bdd.unification.JavaUnificationExecutor;
+import services.env.Env;
+import services.startup.StartupMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
 /**
  * Version modernisée de Bdd qui utilise MicrolangageExecutor
  * Fonctionne avec l'exécutable compilé en production et Python en développement
+ * BDD_ENGINE=java bascule sur le moteur SQLUnification intégré à la JVM
  */
 public class BddNew {
 
-    private static boolean initialized = false;
+    private static volatile boolean initialized = false;
+    private static QueryExecutor executor;
+    private static final List<Runnable> beforeClose = new CopyOnWriteArrayList<>();
+
+    /**
+     * Retourne le moteur d'exécution configuré (microlangage par défaut)
+     */
+    public static synchronized QueryExecutor getExecutor() {
+        if (executor == null) {
+            String engine = Env.dotenv.get("BDD_ENGINE", "microlangage");
+            executor = "java".equalsIgnoreCase(engine) ? new JavaUnificationExecutor() : new MicrolangageQueryExecutor();
+            Runtime.getRuntime().addShutdownHook(new Thread(BddNew::close, "bdd-shutdown"));
+        }
+        return executor;
+    }
+
+    /**
+     * Tâche exécutée à l'arrêt de l'application, avant la fermeture du moteur (écritures encore en attente)
+     */
+    public static void beforeClose(Runnable task) {
+        beforeClose.add(task);
+    }
+
+    private static void close() {
+        for (Runnable task : beforeClose) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Tâche de fermeture BDD en échec: " + e.getMessage());
+            }
+        }
+        executor.close();
+    }
 
     /**
      * Initialise le système de base de données
      */
-    public static void initBdd() {
+    public static synchronized void initBdd() {
         if (initialized) {
             System.out.println("✅ Système BDD déjà initialisé");
             return;
         }
 
         System.out.println("🔧 Initialisation du système BDD...");
-        System.out.println(MicrolangageExecutor.getEnvironmentInfo());
+        System.out.println(getExecutor().getEnvironmentInfo());
 
-        // Tester la disponibilité du microlangage
-        if (MicrolangageExecutor.testConnection()) {
+        // Tester la disponibilité du moteur
+        if (getExecutor().testConnection()) {
             initialized = true;
             System.out.println("✅ Système BDD initialisé avec succès");
         } else {
@@ -39,7 +83,113 @@ public class BddNew {
         }
 
         System.out.println("📊 Exécution requête: " + databaseType + " -> " + query);
-        return MicrolangageExecutor.executeQuery(databaseType, query);
+        return firstQuery(getExecutor().executeQuery(databaseType, query));
+    }
+
+    /**
+     * Exécute une requête préparée : les '?' sont remplacés par les paramètres, sans concaténation
+     */
+    public static String request(String databaseType, String query, Object... params) {
+        if (!initialized) {
+            initBdd();
+        }
+
+        System.out.println("📊 Exécution requête préparée: " + databaseType + " -> " + query);
+        QueryPlan plan = QueryPlanCache.get(query);
+        try {
+            return firstQuery(getExecutor().executeQuery(databaseType, plan, params));
+        } catch (IllegalArgumentException e) {
+            return "erreur: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Exécute une requête en transmettant les lignes du résultat une à une au consommateur
+     * La mémoire utilisée dépend d'une ligne et non de la taille du résultat
+     * Retourne null si les lignes ont été transmises, sinon le message du moteur (erreur, commande sans résultat)
+     */
+    public static String requestStream(String databaseType, String query, Consumer<JsonNode> rowConsumer) {
+        return requestStream(databaseType, query, RowMapper.JSON_NODE, rowConsumer);
+    }
+
+    /**
+     * Version typée : chaque ligne est convertie par le mapper directement depuis le flux JSON
+     * Les paramètres éventuels sont liés aux marqueurs '?' comme pour request
+     */
+    public static <T> String requestStream(String databaseType, String query, RowMapper<T> mapper, Consumer<T> rowConsumer, Object... params) {
+        if (!initialized) {
+            initBdd();
+        }
+
+        System.out.println("📊 Exécution requête en flux: " + databaseType + " -> " + query);
+        try {
+            return firstQuery(getExecutor().executeStream(databaseType, QueryPlanCache.get(query), mapper, rowConsumer, params));
+        } catch (IllegalArgumentException e) {
+            return "erreur: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Exécute une requête préparée et convertit chaque ligne avec le mapper
+     * Retourne une liste vide si la requête a échoué (l'erreur est affichée)
+     */
+    public static <T> List<T> requestList(String databaseType, String query, RowMapper<T> mapper, Object... params) {
+        String result = request(databaseType, query, params);
+        List<T> rows = JsonRowReader.readList(result, mapper);
+        if (rows == null) {
+            System.out.println("❌ Résultat inattendu pour " + databaseType + ": " + result);
+            return new ArrayList<>();
+        }
+        return rows;
+    }
+
+    /**
+     * Version asynchrone de request, exécutée sur l'exécuteur dédié au type de base
+     * Le future échoue avec RejectedExecutionException si la file d'attente est pleine
+     */
+    public static CompletableFuture<String> requestAsync(String databaseType, String query) {
+        return BddDispatcher.submit(databaseType, () -> request(databaseType, query));
+    }
+
+    /**
+     * Version asynchrone de la requête préparée
+     */
+    public static CompletableFuture<String> requestAsync(String databaseType, String query, Object... params) {
+        return BddDispatcher.submit(databaseType, () -> request(databaseType, query, params));
+    }
+
+    /**
+     * Exécute plusieurs requêtes en un seul aller-retour vers le moteur
+     * Retourne un résultat par requête, dans l'ordre ; une erreur n'interrompt pas le lot
+     */
+    public static List<String> requestBatch(String databaseType, List<String> queries) {
+        if (!initialized) {
+            initBdd();
+        }
+
+        System.out.println("📦 Exécution lot: " + databaseType + " -> " + queries.size() + " requête(s)");
+        return firstQuery(getExecutor().executeBatch(databaseType, queries));
+    }
+
+    /**
+     * Écrit des documents en masse (une ligne JSON par document transmise en flux, pas de texte de requête)
+     * keyFields : champs identifiant un document à remplacer s'il existe déjà, liste vide pour une simple insertion
+     */
+    public static String bulkWrite(String databaseType, String collection, List<String> keyFields, Iterable<?> documents) {
+        if (!initialized) {
+            initBdd();
+        }
+
+        System.out.println("📦 Écriture en masse: " + databaseType + " -> " + collection
+                + (keyFields.isEmpty() ? "" : " (clé: " + String.join(", ", keyFields) + ")"));
+        return getExecutor().bulkWrite(databaseType, collection, keyFields, documents);
+    }
+
+    /**
+     * Version asynchrone de requestBatch
+     */
+    public static CompletableFuture<List<String>> requestBatchAsync(String databaseType, List<String> queries) {
+        return BddDispatcher.submit(databaseType, () -> requestBatch(databaseType, queries));
     }
 
     /**
@@ -52,19 +202,25 @@ public class BddNew {
 
         System.out.println("🔍 [DEBUG] Base: " + databaseType);
         System.out.println("🔍 [DEBUG] Requête: " + query);
-        System.out.println("🔍 [DEBUG] " + MicrolangageExecutor.getEnvironmentInfo());
+        System.out.println("🔍 [DEBUG] " + getExecutor().getEnvironmentInfo());
 
-        String result = MicrolangageExecutor.executeQuery(databaseType, query);
+        String result = getExecutor().executeQuery(databaseType, query);
         System.out.println("🔍 [DEBUG] Résultat: " + result);
 
         return result;
     }
 
     /**
-     * Vérifie si l'environnement est prêt
+     * Vérifie si l'environnement est prêt (état mémorisé par initBdd, sans nouvelle requête de test)
      */
     public static boolean isEnvironmentReady() {
-        return initialized && MicrolangageExecutor.testConnection();
+        return initialized;
+    }
+
+    // Mesure du temps jusqu'à la première requête (seule la première est enregistrée)
+    private static <T> T firstQuery(T result) {
+        StartupMetrics.mark(StartupMetrics.FIRST_QUERY);
+        return result;
     }
 
     /**
@@ -80,7 +236,7 @@ public class BddNew {
      * Obtient des informations sur l'environnement
      */
     public static String getEnvironmentInfo() {
-        return MicrolangageExecutor.getEnvironmentInfo() + 
+        return getExecutor().getEnvironmentInfo() + 
                "Initialisé: " + initialized + "\n";
     }
 
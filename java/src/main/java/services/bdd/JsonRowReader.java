@@ -0,0 +1,108 @@
+package services.bdd;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lecture ligne par ligne des résultats JSON du microlangage
+ * Chaque ligne est construite par un RowMapper directement depuis le parser, sans tableau intermédiaire
+ */
+public class JsonRowReader {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Parcourt un tableau JSON élément par élément avec le parser en flux de Jackson
+     * Retourne false si le texte n'est pas un tableau (message ou erreur du moteur)
+     * Un tableau tronqué ou illisible lève une IOException, même si des lignes ont déjà été transmises
+     */
+    public static <T> boolean readArray(Reader reader, RowMapper<T> mapper, Consumer<T> rowConsumer) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(reader)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return false;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("fin du résultat avant la fin du tableau JSON");
+                }
+                if (token == JsonToken.START_OBJECT) {
+                    rowConsumer.accept(mapper.mapRow(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Version texte : false si le texte n'est pas un tableau, aucune ligne n'a alors été transmise
+     * Si la lecture échoue en cours de tableau, lève TruncatedResultException avec le nombre de lignes déjà transmises
+     */
+    public static <T> boolean readArray(String text, RowMapper<T> mapper, Consumer<T> rowConsumer) {
+        if (text == null || !text.trim().startsWith("[")) {
+            return false;
+        }
+        int[] rows = {0};
+        try {
+            return readArray(new StringReader(text), mapper, row -> {
+                rowConsumer.accept(row);
+                rows[0]++;
+            });
+        } catch (IOException e) {
+            throw new TruncatedResultException(rows[0], e);
+        }
+    }
+
+    /**
+     * Convertit un résultat texte en liste d'objets (null si le texte n'est pas un tableau de lignes complet)
+     */
+    public static <T> List<T> readList(String text, RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>();
+        try {
+            return readArray(text, mapper, rows::add) ? rows : null;
+        } catch (TruncatedResultException e) {
+            System.out.println("⚠️ " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Décode une ligne NDJSON (ou une trame ROW du worker)
+     */
+    public static <T> T readRow(String json, RowMapper<T> mapper) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Ligne JSON attendue: " + json);
+            }
+            return mapper.mapRow(parser);
+        }
+    }
+
+    /**
+     * Applique le mapper à une ligne déjà décodée (moteur Java)
+     */
+    public static <T> T readRow(TreeNode row, RowMapper<T> mapper) throws IOException {
+        try (JsonParser parser = objectMapper.treeAsTokens(row)) {
+            parser.nextToken();
+            return mapper.mapRow(parser);
+        }
+    }
+
+    /**
+     * Indique si une ligne NDJSON est une ligne de résultat (objet JSON) et non un message
+     */
+    public static boolean isRow(String line) {
+        return line.startsWith("{");
+    }
+}
@@ -1,11 +1,23 @@
 package services.bdd;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import services.env.Env;
+
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * Gestionnaire pour exécuter le microlangage SQLUnification
@@ -15,12 +27,32 @@ public class MicrolangageExecutor {
     
     private static boolean isProduction = false;
     private static boolean executorReady = false;
+    private static volatile boolean detected = false;
+
+    // Nombre de processus résidents (0 = un processus par requête)
+    private static final int WORKER_COUNT = Integer.parseInt(Env.dotenv.get("MICROLANGAGE_WORKERS", "2"));
+    private static final long TIMEOUT_SECONDS = Long.parseLong(Env.dotenv.get("MICROLANGAGE_TIMEOUT", "30"));
+    // Format proposé aux workers (cbor ou json) ; un worker sans support CBOR reste en JSON
+    private static final MicrolangageWorker.WireFormat WIRE_FORMAT = MicrolangageWorker.WireFormat.parse(
+            Env.dotenv.get("MICROLANGAGE_WIRE_FORMAT", "cbor"));
+    private static MicrolangageWorkerPool workerPool;
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+    private static final ObjectMapper objectMapper = new ObjectMapper();
     
-    static {
-        // Détecter si on est en production (exécutable présent) ou développement
-        detectEnvironment();
+    /**
+     * Détecte l'environnement au premier usage plutôt qu'au chargement de la classe
+     */
+    private static void ensureDetected() {
+        if (!detected) {
+            synchronized (MicrolangageExecutor.class) {
+                if (!detected) {
+                    detectEnvironment();
+                    detected = true;
+                }
+            }
+        }
     }
-    
+
     private static void detectEnvironment() {
         Path executablePath = getExecutablePath();
         isProduction = Files.exists(executablePath);
@@ -91,47 +123,169 @@ public class MicrolangageExecutor {
         }
     }
     
+    /**
+     * Construit la commande du worker résident (exécutable ou Python du venv)
+     */
+    private static List<String> getWorkerCommand() {
+        if (isProduction) {
+            return List.of(getExecutablePath().toAbsolutePath().toString(), "--worker");
+        }
+        boolean isWindows = System.getProperty("os.name").toLowerCase().contains("win");
+        Path python = Paths.get(isWindows ? "../microlangage/venv/Scripts/python.exe" : "../microlangage/venv/bin/python3");
+        return List.of(python.toAbsolutePath().toString(), "-u", "SQLUnification1.py", "--worker");
+    }
+
+    /**
+     * Retourne le pool de workers, créé au premier appel (null si le mode worker est désactivé)
+     */
+    private static synchronized MicrolangageWorkerPool getWorkerPool() {
+        if (workerPool == null && WORKER_COUNT > 0) {
+            File directory = isProduction ? null : new File("../microlangage");
+            workerPool = new MicrolangageWorkerPool(WORKER_COUNT, getWorkerCommand(), directory, TIMEOUT_SECONDS * 1000, WIRE_FORMAT);
+            System.out.println("🔧 Pool de " + WORKER_COUNT + " worker(s) microlangage créé");
+        }
+        return workerPool;
+    }
+
+    /**
+     * Arrête les workers résidents (appelé à la fermeture du moteur BDD)
+     */
+    public static synchronized void shutdown() {
+        if (workerPool != null) {
+            workerPool.close();
+        }
+    }
+
+    /**
+     * Démarre les workers résidents à l'avance pour que la première requête ne paie pas le démarrage
+     */
+    public static boolean warmUpWorkers() {
+        ensureDetected();
+        MicrolangageWorkerPool pool = executorReady ? getWorkerPool() : null;
+        return pool != null && pool.warmUp() > 0;
+    }
+
     /**
      * Exécute une requête avec le microlangage
      */
     public static String executeQuery(String databaseType, String query) {
+        ensureDetected();
         if (!executorReady) {
             return "erreur: Microlangage non initialisé";
         }
-        
-        try {
-            ProcessBuilder pb;
-            
-            if (isProduction) {
-                // Mode production - utiliser l'exécutable
-                Path executable = getExecutablePath();
-                pb = new ProcessBuilder(
-                    executable.toString(),
-                    databaseType,
-                    query
-                );
-                System.out.println("🚀 Exécution: " + executable + " " + databaseType + " \"" + query + "\"");
-                
+
+        MicrolangageWorkerPool pool = getWorkerPool();
+        if (pool != null) {
+            return pool.execute(databaseType, query);
+        }
+        return executeOneShot(databaseType, query);
+    }
+
+    /**
+     * Exécute un lot de requêtes, un résultat par requête dans le même ordre
+     * Avec les workers résidents, tout le lot part en un seul échange
+     */
+    public static List<String> executeBatch(String databaseType, List<String> queries) {
+        ensureDetected();
+        MicrolangageWorkerPool pool = executorReady ? getWorkerPool() : null;
+        if (pool != null) {
+            return pool.executeBatch(databaseType, queries);
+        }
+
+        List<String> results = new ArrayList<>();
+        for (String query : queries) {
+            results.add(executeQuery(databaseType, query));
+        }
+        return results;
+    }
+
+    /**
+     * Exécute une requête en transmettant les lignes une à une, sans charger tout le résultat
+     * Retourne null si les lignes ont été transmises, sinon le message du microlangage
+     */
+    public static <T> String executeStream(String databaseType, String query, RowMapper<T> mapper, Consumer<T> rowConsumer) {
+        ensureDetected();
+        if (!executorReady) {
+            return "erreur: Microlangage non initialisé";
+        }
+
+        MicrolangageWorkerPool pool = getWorkerPool();
+        if (pool != null) {
+            return pool.executeStream(databaseType, query, mapper, rowConsumer);
+        }
+        return executeOneShotStream(databaseType, query, mapper, rowConsumer);
+    }
+
+    /**
+     * Écriture en masse : les documents sont envoyés en NDJSON sur l'entrée standard du microlangage
+     * Aucune donnée ne passe dans la ligne de commande, quelle que soit la taille du lot
+     */
+    public static String bulkWrite(String databaseType, String collection, List<String> keyFields, Iterable<?> documents) {
+        ensureDetected();
+        if (!executorReady) {
+            return "erreur: Microlangage non initialisé";
+        }
+        // Les noms transitent dans l'en-tête du protocole et la ligne de commande
+        if (!SAFE_NAME.matcher(collection).matches() || !keyFields.stream().allMatch(f -> SAFE_NAME.matcher(f).matches())) {
+            return "erreur: nom de collection ou de champ invalide pour l'écriture en masse";
+        }
+
+        MicrolangageWorkerPool pool = getWorkerPool();
+        if (pool != null) {
+            return pool.bulkWrite(databaseType, collection, keyFields, documents);
+        }
+        return executeOneShotIngest(databaseType, collection, keyFields, documents);
+    }
+
+    /**
+     * Construit la commande d'un processus dédié (ndjson : une ligne JSON par résultat)
+     */
+    private static ProcessBuilder buildOneShotProcess(String databaseType, String query, boolean ndjson) {
+        ProcessBuilder pb;
+        String mode = ndjson ? "--ndjson " : "";
+
+        if (isProduction) {
+            // Mode production - utiliser l'exécutable
+            Path executable = getExecutablePath();
+            List<String> command = new ArrayList<>();
+            command.add(executable.toString());
+            if (ndjson) {
+                command.add("--ndjson");
+            }
+            command.add(databaseType);
+            command.add(query);
+            pb = new ProcessBuilder(command);
+            System.out.println("🚀 Exécution: " + executable + " " + mode + databaseType + " \"" + query + "\"");
+
+        } else {
+            // Mode développement - utiliser Python
+            boolean isWindows = System.getProperty("os.name").toLowerCase().contains("win");
+
+            if (isWindows) {
+                // Échapper les guillemets pour Windows cmd
+                String escapedQuery = query.replace("\"", "\\\"");
+                pb = new ProcessBuilder("cmd", "/c",
+                    "cd ..\\microlangage && " +
+                    "venv\\Scripts\\python.exe SQLUnification1.py " + mode + databaseType + " \"" + escapedQuery + "\"");
             } else {
-                // Mode développement - utiliser Python
-                boolean isWindows = System.getProperty("os.name").toLowerCase().contains("win");
-                
-                if (isWindows) {
-                    // Échapper les guillemets pour Windows cmd
-                    String escapedQuery = query.replace("\"", "\\\"");
-                    pb = new ProcessBuilder("cmd", "/c",
-                        "cd ..\\microlangage && " +
-                        "venv\\Scripts\\python.exe SQLUnification1.py " + databaseType + " \"" + escapedQuery + "\"");
-                } else {
-                    // Échapper les quotes pour bash
-                    String escapedQuery = query.replace("'", "'\"'\"'");
-                    pb = new ProcessBuilder("bash", "-c",
-                        "cd ../microlangage && " +
-                        "source venv/bin/activate > /dev/null 2>&1; " +
-                        "python3 SQLUnification1.py " + databaseType + " '" + escapedQuery + "'");
-                }
-                System.out.println("🔧 Exécution Python: " + databaseType + " \"" + query + "\"");
+                // Échapper les quotes pour bash
+                String escapedQuery = query.replace("'", "'\"'\"'");
+                pb = new ProcessBuilder("bash", "-c",
+                    "cd ../microlangage && " +
+                    "source venv/bin/activate > /dev/null 2>&1; " +
+                    "python3 SQLUnification1.py " + mode + databaseType + " '" + escapedQuery + "'");
             }
+            System.out.println("🔧 Exécution Python: " + mode + databaseType + " \"" + query + "\"");
+        }
+        return pb;
+    }
+
+    /**
+     * Exécute une requête dans un processus dédié (mode historique, sans worker)
+     */
+    private static String executeOneShot(String databaseType, String query) {
+        try {
+            ProcessBuilder pb = buildOneShotProcess(databaseType, query, false);
             
             pb.redirectErrorStream(true);
             Process process = pb.start();
@@ -144,7 +298,7 @@ public class MicrolangageExecutor {
                 }
             }
             
-            boolean finished = process.waitFor(30, TimeUnit.SECONDS);
+            boolean finished = process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
             if (!finished) {
                 process.destroyForcibly();
                 return "erreur: Timeout lors de l'exécution de la requête";
@@ -161,10 +315,118 @@ public class MicrolangageExecutor {
         }
     }
     
+    /**
+     * Processus dédié en mode --ndjson : les lignes sont décodées au fil de la sortie standard
+     */
+    private static <T> String executeOneShotStream(String databaseType, String query, RowMapper<T> mapper, Consumer<T> rowConsumer) {
+        try {
+            ProcessBuilder pb = buildOneShotProcess(databaseType, query, true);
+            // stderr séparé : seul stdout contient les lignes de résultat
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            Process process = pb.start();
+
+            StringBuilder message = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (JsonRowReader.isRow(line)) {
+                        rowConsumer.accept(JsonRowReader.readRow(line, mapper));
+                    } else if (!line.isBlank()) {
+                        message.append(line).append("\n");
+                    }
+                }
+            }
+
+            boolean finished = process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (!finished) {
+                process.destroyForcibly();
+                return "erreur: Timeout lors de l'exécution de la requête";
+            }
+
+            if (process.exitValue() != 0) {
+                return "erreur: Échec de l'exécution (code " + process.exitValue() + ")\n" + message;
+            }
+
+            return message.length() == 0 ? null : message.toString().trim();
+
+        } catch (Exception e) {
+            return "erreur: Exception lors de l'exécution - " + e.getMessage();
+        }
+    }
+
+    /**
+     * Processus dédié en mode --ingest : les documents sont écrits sur stdin pendant que le processus les insère
+     */
+    private static String executeOneShotIngest(String databaseType, String collection, List<String> keyFields, Iterable<?> documents) {
+        String keys = keyFields.isEmpty() ? "-" : String.join(",", keyFields);
+        try {
+            ProcessBuilder pb;
+            if (isProduction) {
+                pb = new ProcessBuilder(getExecutablePath().toString(), "--ingest", databaseType, collection, keys);
+            } else if (System.getProperty("os.name").toLowerCase().contains("win")) {
+                pb = new ProcessBuilder("cmd", "/c",
+                    "cd ..\\microlangage && " +
+                    "venv\\Scripts\\python.exe SQLUnification1.py --ingest " + databaseType + " " + collection + " " + keys);
+            } else {
+                pb = new ProcessBuilder("bash", "-c",
+                    "cd ../microlangage && " +
+                    "source venv/bin/activate > /dev/null 2>&1; " +
+                    "python3 SQLUnification1.py --ingest " + databaseType + " " + collection + " " + keys);
+            }
+            System.out.println("🔧 Écriture en masse: --ingest " + databaseType + " " + collection + " " + keys);
+            pb.redirectErrorStream(true);
+            Process process = pb.start();
+
+            // Lecture de la sortie en parallèle pour ne pas bloquer le processus pendant l'envoi
+            StringBuilder output = new StringBuilder();
+            Thread reader = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        output.append(line).append("\n");
+                    }
+                } catch (IOException ignored) {
+                    // Processus terminé
+                }
+            }, "microlangage-ingest-output");
+            reader.setDaemon(true);
+            reader.start();
+
+            try (OutputStream stdin = new BufferedOutputStream(process.getOutputStream(), 64 * 1024)) {
+                for (Object document : documents) {
+                    stdin.write(objectMapper.writeValueAsBytes(document));
+                    stdin.write('\n');
+                }
+            }
+
+            boolean finished = process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (!finished) {
+                process.destroyForcibly();
+                return "erreur: Timeout lors de l'écriture en masse";
+            }
+            reader.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+
+            String result = output.toString().trim();
+            if (process.exitValue() != 0) {
+                return "erreur: Échec de l'écriture en masse (code " + process.exitValue() + ")\n" + result;
+            }
+            // Le bilan est la dernière ligne, après les messages de connexion
+            return result.substring(result.lastIndexOf('\n') + 1);
+
+        } catch (Exception e) {
+            return "erreur: Exception lors de l'écriture en masse - " + e.getMessage();
+        }
+    }
+
     /**
      * Teste la disponibilité du microlangage
+     * Avec les workers, leur démarrage (trame READY) fait office de test et la première requête n'attend plus
      */
     public static boolean testConnection() {
+        ensureDetected();
+        if (executorReady && WORKER_COUNT > 0) {
+            return warmUpWorkers();
+        }
         String result = executeQuery("test", "SELECT 1");
         return !result.startsWith("erreur:");
     }
@@ -173,6 +435,7 @@ public class MicrolangageExecutor {
      * Obtient des informations sur l'environnement
      */
     public static String getEnvironmentInfo() {
+        ensureDetected();
         StringBuilder info = new StringBuilder();
         info.append("Mode: ").append(isProduction ? "Production (exécutable)" : "Développement (Python)").append("\n");
         info.append("Prêt: ").append(executorReady ? "Oui" : "Non").append("\n");
@@ -184,6 +447,12 @@ public class MicrolangageExecutor {
         } else {
             info.append("Python venv: ../microlangage/venv\n");
         }
+
+        if (workerPool != null) {
+            info.append("Workers: ").append(workerPool.getAliveCount()).append("/").append(workerPool.getSize()).append(" actifs\n");
+        } else {
+            info.append("Workers: ").append(WORKER_COUNT > 0 ? "non démarrés" : "désactivés").append("\n");
+        }
         
         return info.toString();
     }
@@ -0,0 +1,45 @@
+package services.bdd;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Moteur historique : délègue au microlangage Python via MicrolangageExecutor
+ */
+public class MicrolangageQueryExecutor implements QueryExecutor {
+
+    @Override
+    public String executeQuery(String databaseType, String query) {
+        return MicrolangageExecutor.executeQuery(databaseType, query);
+    }
+
+    @Override
+    public List<String> executeBatch(String databaseType, List<String> queries) {
+        return MicrolangageExecutor.executeBatch(databaseType, queries);
+    }
+
+    @Override
+    public <T> String executeStream(String databaseType, String query, RowMapper<T> mapper, Consumer<T> rowConsumer) {
+        return MicrolangageExecutor.executeStream(databaseType, query, mapper, rowConsumer);
+    }
+
+    @Override
+    public String bulkWrite(String databaseType, String collection, List<String> keyFields, Iterable<?> documents) {
+        return MicrolangageExecutor.bulkWrite(databaseType, collection, keyFields, documents);
+    }
+
+    @Override
+    public boolean testConnection() {
+        return MicrolangageExecutor.testConnection();
+    }
+
+    @Override
+    public String getEnvironmentInfo() {
+        return MicrolangageExecutor.getEnvironmentInfo();
+    }
+
+    @Override
+    public void close() {
+        MicrolangageExecutor.shutdown();
+    }
+}
@@ -0,0 +1,412 @@
+package services.bdd;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Processus SQLUnification résident lancé en mode --worker
+ * Les requêtes sont envoyées sous forme de trames sur stdin, les réponses lues sur stdout
+ * Les charges utiles structurées (lignes, lots, documents) sont en JSON ou en CBOR selon le format négocié au démarrage
+ */
+public class MicrolangageWorker {
+
+    public enum WireFormat {
+        JSON, CBOR;
+
+        public static WireFormat parse(String value) {
+            return "cbor".equalsIgnoreCase(value.trim()) ? CBOR : JSON;
+        }
+    }
+
+    private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "microlangage-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper cborMapper = new CBORMapper();
+
+    private final int id;
+    private final ProcessBuilder processBuilder;
+    private final WireFormat requestedFormat;
+    private WireFormat wireFormat = WireFormat.JSON;
+    private Process process;
+    private OutputStream input;
+    private InputStream output;
+    private long lastUsed;
+
+    public MicrolangageWorker(int id, List<String> command, File directory) {
+        this(id, command, directory, WireFormat.JSON);
+    }
+
+    public MicrolangageWorker(int id, List<String> command, File directory, WireFormat requestedFormat) {
+        this.id = id;
+        this.requestedFormat = requestedFormat;
+        this.processBuilder = new ProcessBuilder(command);
+        if (directory != null) {
+            processBuilder.directory(directory);
+        }
+        // stderr reste séparé : seul stdout transporte le protocole
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    }
+
+    /**
+     * Démarre le processus, attend la trame READY puis négocie le format des charges utiles
+     */
+    public synchronized void start(long timeoutMillis) throws IOException {
+        destroy();
+        process = processBuilder.start();
+        input = process.getOutputStream();
+        output = new BufferedInputStream(process.getInputStream());
+
+        Frame ready = readFrameWithTimeout(timeoutMillis);
+        if (!"READY".equals(ready.status)) {
+            destroy();
+            throw new IOException("Worker " + id + " : trame READY attendue, reçu " + ready.status);
+        }
+        wireFormat = WireFormat.JSON;
+        if (requestedFormat == WireFormat.CBOR) {
+            // Un worker sans CBOR répond json, un worker plus ancien répond ERR : JSON dans les deux cas
+            writeHeader("FORMAT cbor");
+            input.flush();
+            Frame format = readFrameWithTimeout(timeoutMillis);
+            if ("OK".equals(format.status) && "cbor".equals(format.text())) {
+                wireFormat = WireFormat.CBOR;
+            }
+        }
+        lastUsed = System.currentTimeMillis();
+        System.out.println("🟢 Worker microlangage #" + id + " démarré (pid " + process.pid() + ", " + wireFormat.name().toLowerCase() + ")");
+    }
+
+    /**
+     * Exécute une requête sur le worker, le processus est tué si le délai est dépassé
+     */
+    public synchronized String execute(String databaseType, String query, long timeoutMillis) throws IOException {
+        byte[] payload = query.getBytes(StandardCharsets.UTF_8);
+        writeHeader("QUERY " + databaseType + " " + payload.length);
+        input.write(payload);
+        input.flush();
+
+        Frame frame = readFrameWithTimeout(timeoutMillis);
+        lastUsed = System.currentTimeMillis();
+        if ("ERR".equals(frame.status)) {
+            return "erreur: " + frame.text();
+        }
+        return frame.text().trim();
+    }
+
+    /**
+     * Exécute un lot de requêtes en un seul échange, les résultats sont renvoyés dans l'ordre
+     */
+    public synchronized List<String> executeBatch(String databaseType, List<String> queries, long timeoutMillis) throws IOException {
+        byte[] payload = payloadMapper().writeValueAsBytes(queries);
+        writeHeader("BATCH " + databaseType + " " + payload.length);
+        input.write(payload);
+        input.flush();
+
+        Frame frame = readFrameWithTimeout(timeoutMillis);
+        lastUsed = System.currentTimeMillis();
+        if ("ERR".equals(frame.status)) {
+            List<String> errors = new ArrayList<>();
+            for (int i = 0; i < queries.size(); i++) {
+                errors.add("erreur: " + frame.text());
+            }
+            return errors;
+        }
+
+        List<String> results = new ArrayList<>();
+        for (String result : payloadMapper().readValue(frame.payload, String[].class)) {
+            results.add(result.trim());
+        }
+        if (results.size() != queries.size()) {
+            throw new IOException("Worker " + id + " : " + queries.size() + " résultats attendus, reçu " + results.size());
+        }
+        return results;
+    }
+
+    /**
+     * Écriture en masse : les documents partent au fil de l'itération, puis le marqueur de fin
+     * JSON : une ligne par document, ligne vide finale ; CBOR : "<taille>\n" puis le document, "0\n" final
+     * Chaque bloc écrit vers le worker a son propre délai : un worker qui ne lit plus son entrée est arrêté
+     * au lieu de bloquer l'appelant ; le délai de la réponse court ensuite à partir du dernier document envoyé
+     */
+    public synchronized String bulkWrite(String databaseType, String collection, List<String> keyFields,
+                                         Iterable<?> documents, long timeoutMillis) throws IOException {
+        writeHeader("INGEST " + databaseType + " " + collection + " " + (keyFields.isEmpty() ? "-" : String.join(",", keyFields)));
+        BufferedOutputStream lines = new BufferedOutputStream(new DeadlineOutputStream(input, timeoutMillis), 64 * 1024);
+        for (Object document : documents) {
+            if (wireFormat == WireFormat.CBOR) {
+                byte[] record = cborMapper.writeValueAsBytes(document);
+                lines.write((record.length + "\n").getBytes(StandardCharsets.US_ASCII));
+                lines.write(record);
+            } else {
+                // Jackson échappe les retours à la ligne : un document tient toujours sur une ligne
+                lines.write(objectMapper.writeValueAsBytes(document));
+                lines.write('\n');
+            }
+        }
+        lines.write(wireFormat == WireFormat.CBOR ? "0\n".getBytes(StandardCharsets.US_ASCII) : new byte[]{'\n'});
+        lines.flush();
+
+        Frame frame = readFrameWithTimeout(timeoutMillis);
+        lastUsed = System.currentTimeMillis();
+        if ("ERR".equals(frame.status)) {
+            return "erreur: " + frame.text();
+        }
+        return frame.text().trim();
+    }
+
+    /**
+     * Exécute une requête en flux : chaque trame ROW (ou paquet ROWS en CBOR) est décodée et transmise dès sa réception
+     * Retourne null si des lignes ont été lues jusqu'à la trame END, sinon le message du worker
+     */
+    public synchronized <T> String executeStream(String databaseType, String query, RowMapper<T> mapper,
+                                                 Consumer<T> rowConsumer, long timeoutMillis) throws IOException {
+        byte[] payload = query.getBytes(StandardCharsets.UTF_8);
+        writeHeader("STREAM " + databaseType + " " + payload.length);
+        input.write(payload);
+        input.flush();
+
+        // Le délai s'applique entre deux trames, pas à la lecture complète
+        Frame frame = readFrameWithTimeout(timeoutMillis);
+        while ("ROW".equals(frame.status) || "ROWS".equals(frame.status)) {
+            if ("ROWS".equals(frame.status)) {
+                readCborRows(frame.payload, mapper, rowConsumer);
+            } else {
+                rowConsumer.accept(JsonRowReader.readRow(frame.text(), mapper));
+            }
+            frame = readFrameWithTimeout(timeoutMillis);
+        }
+        lastUsed = System.currentTimeMillis();
+
+        return switch (frame.status) {
+            case "END" -> null;
+            case "ERR" -> "erreur: " + frame.text();
+            default -> frame.text().trim();
+        };
+    }
+
+    /**
+     * Vérifie que le worker répond toujours
+     */
+    public synchronized boolean ping(long timeoutMillis) {
+        if (!isAlive()) {
+            return false;
+        }
+        try {
+            writeHeader("PING");
+            input.flush();
+            Frame frame = readFrameWithTimeout(timeoutMillis);
+            lastUsed = System.currentTimeMillis();
+            return "OK".equals(frame.status) && "PONG".equals(frame.text());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public synchronized boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    public synchronized long getLastUsed() {
+        return lastUsed;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public synchronized WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * Arrête proprement le processus (QUIT) puis le tue s'il ne se termine pas
+     */
+    public synchronized void destroy() {
+        if (process == null) {
+            return;
+        }
+        try {
+            if (process.isAlive()) {
+                writeHeader("QUIT");
+                input.flush();
+                if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        } catch (Exception e) {
+            process.destroyForcibly();
+        } finally {
+            process = null;
+            input = null;
+            output = null;
+        }
+    }
+
+    private ObjectMapper payloadMapper() {
+        return wireFormat == WireFormat.CBOR ? cborMapper : objectMapper;
+    }
+
+    /**
+     * Décode un paquet ROWS (tableau CBOR de lignes) ; le mapper lit chaque objet directement depuis le parser CBOR
+     */
+    public static <T> void readCborRows(byte[] payload, RowMapper<T> mapper, Consumer<T> rowConsumer) throws IOException {
+        try (JsonParser parser = cborMapper.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Paquet de lignes CBOR invalide");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                rowConsumer.accept(mapper.mapRow(parser));
+            }
+        }
+    }
+
+    private void writeHeader(String header) throws IOException {
+        if (!isAlive()) {
+            throw new IOException("Worker " + id + " arrêté");
+        }
+        input.write((header + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Frame readFrameWithTimeout(long timeoutMillis) throws IOException {
+        return withTimeout(timeoutMillis, "Timeout lors de l'exécution de la requête", this::readFrame);
+    }
+
+    @FunctionalInterface
+    private interface IoCall<T> {
+        T call() throws IOException;
+    }
+
+    private <T> T withTimeout(long timeoutMillis, String message, IoCall<T> call) throws IOException {
+        Process current = process;
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        // Si l'échange ne se termine pas à temps, tuer le processus débloque la lecture ou l'écriture
+        ScheduledFuture<?> timeout = watchdog.schedule(() -> {
+            timedOut.set(true);
+            current.destroyForcibly();
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            return call.call();
+        } catch (IOException e) {
+            if (timedOut.get()) {
+                throw new IOException(message, e);
+            }
+            throw e;
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    /**
+     * Écritures vers l'entrée du worker bornées dans le temps (tube plein parce que le worker ne lit plus)
+     */
+    private class DeadlineOutputStream extends FilterOutputStream {
+        private static final String MESSAGE = "Timeout lors de l'envoi des documents au worker";
+        private final long timeoutMillis;
+
+        DeadlineOutputStream(OutputStream out, long timeoutMillis) {
+            super(out);
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            withTimeout(timeoutMillis, MESSAGE, () -> {
+                out.write(b);
+                return null;
+            });
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            withTimeout(timeoutMillis, MESSAGE, () -> {
+                out.write(buffer, offset, length);
+                return null;
+            });
+        }
+
+        @Override
+        public void flush() throws IOException {
+            withTimeout(timeoutMillis, MESSAGE, () -> {
+                out.flush();
+                return null;
+            });
+        }
+
+        // Le flux du processus reste ouvert pour les requêtes suivantes
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private Frame readFrame() throws IOException {
+        String header = readLine();
+        int separator = header.lastIndexOf(' ');
+        if (separator == -1) {
+            throw new IOException("Trame invalide: " + header);
+        }
+
+        String status = header.substring(0, separator);
+        int length;
+        try {
+            length = Integer.parseInt(header.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IOException("Taille de trame invalide: " + header);
+        }
+
+        byte[] payload = output.readNBytes(length);
+        if (payload.length != length) {
+            throw new IOException("Worker " + id + " arrêté pendant la lecture de la réponse");
+        }
+        return new Frame(status, payload);
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = output.read()) != -1) {
+            if (b == '\n') {
+                return line.toString(StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+        throw new IOException("Worker " + id + " arrêté (fin de flux)");
+    }
+
+    private static class Frame {
+        final String status;
+        final byte[] payload;
+
+        Frame(String status, byte[] payload) {
+            this.status = status;
+            this.payload = payload;
+        }
+
+        String text() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+}
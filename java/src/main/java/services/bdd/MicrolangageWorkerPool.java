@@ -0,0 +1,218 @@
+package services.bdd;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Pool de processus SQLUnification résidents
+ * Chaque requête emprunte un worker, un worker mort ou bloqué est redémarré
+ */
+public class MicrolangageWorkerPool {
+
+    private static final long STARTUP_TIMEOUT_MS = 20_000;
+    private static final long PING_TIMEOUT_MS = 2_000;
+    private static final long IDLE_PING_AFTER_MS = 30_000;
+    private static final long HEALTH_CHECK_PERIOD_S = 60;
+
+    private final List<MicrolangageWorker> workers = new ArrayList<>();
+    private final BlockingQueue<MicrolangageWorker> idleWorkers;
+    private final long requestTimeoutMillis;
+    private final ScheduledExecutorService healthChecker;
+    private volatile boolean closed = false;
+
+    public MicrolangageWorkerPool(int size, List<String> command, File directory, long requestTimeoutMillis) {
+        this(size, command, directory, requestTimeoutMillis, MicrolangageWorker.WireFormat.JSON);
+    }
+
+    public MicrolangageWorkerPool(int size, List<String> command, File directory, long requestTimeoutMillis,
+                                  MicrolangageWorker.WireFormat wireFormat) {
+        this.idleWorkers = new ArrayBlockingQueue<>(size);
+        this.requestTimeoutMillis = requestTimeoutMillis;
+
+        for (int i = 1; i <= size; i++) {
+            MicrolangageWorker worker = new MicrolangageWorker(i, command, directory, wireFormat);
+            workers.add(worker);
+            idleWorkers.add(worker);
+        }
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "microlangage-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::healthCheck, HEALTH_CHECK_PERIOD_S, HEALTH_CHECK_PERIOD_S, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Démarre tous les workers en parallèle, retourne le nombre de workers opérationnels
+     */
+    public int warmUp() {
+        List<CompletableFuture<Boolean>> starts = new ArrayList<>();
+        for (MicrolangageWorker worker : workers) {
+            starts.add(CompletableFuture.supplyAsync(() -> ensureStarted(worker)));
+        }
+        int started = 0;
+        for (CompletableFuture<Boolean> start : starts) {
+            if (start.join()) {
+                started++;
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Exécute une requête sur le premier worker disponible
+     */
+    public String execute(String databaseType, String query) {
+        return withWorker(worker -> worker.execute(databaseType, query, requestTimeoutMillis), error -> error);
+    }
+
+    /**
+     * Exécute un lot de requêtes en un seul échange avec un worker
+     * En cas d'échec du worker, chaque requête du lot reçoit l'erreur
+     */
+    public List<String> executeBatch(String databaseType, List<String> queries) {
+        if (queries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long batchTimeoutMillis = requestTimeoutMillis * queries.size();
+        return withWorker(worker -> worker.executeBatch(databaseType, queries, batchTimeoutMillis), error -> {
+            List<String> errors = new ArrayList<>();
+            for (int i = 0; i < queries.size(); i++) {
+                errors.add(error);
+            }
+            return errors;
+        });
+    }
+
+    /**
+     * Exécute une requête en flux sur le premier worker disponible
+     */
+    public <T> String executeStream(String databaseType, String query, RowMapper<T> mapper, Consumer<T> rowConsumer) {
+        return withWorker(worker -> worker.executeStream(databaseType, query, mapper, rowConsumer, requestTimeoutMillis), error -> error);
+    }
+
+    /**
+     * Écriture en masse sur le premier worker disponible, documents transmis en flux
+     */
+    public String bulkWrite(String databaseType, String collection, List<String> keyFields, Iterable<?> documents) {
+        return withWorker(worker -> worker.bulkWrite(databaseType, collection, keyFields, documents, requestTimeoutMillis), error -> error);
+    }
+
+    private <T> T withWorker(WorkerCall<T> call, Function<String, T> onError) {
+        if (closed) {
+            return onError.apply("erreur: Pool de workers fermé");
+        }
+
+        MicrolangageWorker worker;
+        try {
+            worker = idleWorkers.poll(requestTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return onError.apply("erreur: Requête interrompue");
+        }
+        if (worker == null) {
+            return onError.apply("erreur: Aucun worker microlangage disponible");
+        }
+
+        try {
+            if (!ensureStarted(worker)) {
+                return onError.apply("erreur: Impossible de démarrer le worker microlangage");
+            }
+            if (System.currentTimeMillis() - worker.getLastUsed() > IDLE_PING_AFTER_MS && !worker.ping(PING_TIMEOUT_MS)) {
+                System.out.println("⚠️ Worker #" + worker.getId() + " ne répond plus, redémarrage");
+                if (!restart(worker)) {
+                    return onError.apply("erreur: Impossible de redémarrer le worker microlangage");
+                }
+            }
+            return call.call(worker);
+        } catch (IOException e) {
+            // Crash ou timeout : le processus est remplacé pour la prochaine requête
+            System.out.println("❌ Worker #" + worker.getId() + " en échec: " + e.getMessage());
+            worker.destroy();
+            return onError.apply("erreur: " + e.getMessage());
+        } catch (RuntimeException | Error e) {
+            // Exception de l'appelant (mapper, consommateur de lignes, documents) au milieu d'un échange :
+            // des trames restent non lues, le worker ne peut pas servir la requête suivante
+            System.out.println("❌ Worker #" + worker.getId() + " abandonné en cours d'échange: " + e);
+            worker.destroy();
+            throw e;
+        } finally {
+            idleWorkers.offer(worker);
+        }
+    }
+
+    /**
+     * Ping des workers inactifs et redémarrage de ceux qui ne répondent plus
+     */
+    public void healthCheck() {
+        List<MicrolangageWorker> checked = new ArrayList<>();
+        idleWorkers.drainTo(checked);
+        try {
+            for (MicrolangageWorker worker : checked) {
+                if (worker.isAlive() && !worker.ping(PING_TIMEOUT_MS)) {
+                    System.out.println("⚠️ Health check échoué pour le worker #" + worker.getId());
+                    restart(worker);
+                }
+            }
+        } finally {
+            idleWorkers.addAll(checked);
+        }
+    }
+
+    public int getSize() {
+        return workers.size();
+    }
+
+    public int getAliveCount() {
+        int alive = 0;
+        for (MicrolangageWorker worker : workers) {
+            if (worker.isAlive()) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Arrête les workers ; appelé par le propriétaire du pool, après les dernières écritures
+     */
+    public void close() {
+        closed = true;
+        healthChecker.shutdownNow();
+        for (MicrolangageWorker worker : workers) {
+            worker.destroy();
+        }
+    }
+
+    private boolean ensureStarted(MicrolangageWorker worker) {
+        // Verrou du worker : une requête attend la fin d'un démarrage en cours au lieu d'en relancer un
+        synchronized (worker) {
+            return worker.isAlive() || restart(worker);
+        }
+    }
+
+    private boolean restart(MicrolangageWorker worker) {
+        try {
+            worker.start(STARTUP_TIMEOUT_MS);
+            return true;
+        } catch (IOException e) {
+            System.out.println("❌ Démarrage du worker #" + worker.getId() + " impossible: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private interface WorkerCall<T> {
+        T call(MicrolangageWorker worker) throws IOException;
+    }
+}
@@ -0,0 +1,80 @@
+package services.bdd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Contrat commun des moteurs d'exécution du dialecte SQLUnification
+ * Les résultats gardent le format texte du microlangage (JSON pour les SELECT, message sinon)
+ */
+public interface QueryExecutor {
+
+    /**
+     * Exécute une requête sur la base indiquée (postgres, mongo, neo4j)
+     */
+    String executeQuery(String databaseType, String query);
+
+    /**
+     * Exécute une requête préparée en liant les paramètres aux marqueurs '?'
+     */
+    default String executeQuery(String databaseType, QueryPlan plan, Object... params) {
+        return executeQuery(databaseType, plan.render(params));
+    }
+
+    /**
+     * Exécute plusieurs requêtes et retourne un résultat par requête, dans le même ordre
+     * Une requête en erreur n'interrompt pas les suivantes
+     */
+    default List<String> executeBatch(String databaseType, List<String> queries) {
+        List<String> results = new ArrayList<>();
+        for (String query : queries) {
+            results.add(executeQuery(databaseType, query));
+        }
+        return results;
+    }
+
+    /**
+     * Exécute une requête en transmettant les lignes du résultat une à une
+     * Retourne null si les lignes ont été transmises, sinon le message du moteur (erreur, commande sans résultat)
+     * Un résultat tronqué donne une erreur, même si une partie des lignes a déjà été transmise
+     */
+    default <T> String executeStream(String databaseType, String query, RowMapper<T> mapper, Consumer<T> rowConsumer) {
+        String result = executeQuery(databaseType, query);
+        try {
+            return JsonRowReader.readArray(result, mapper, rowConsumer) ? null : result;
+        } catch (TruncatedResultException e) {
+            return "erreur: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Version préparée de executeStream : les paramètres sont liés aux marqueurs '?'
+     */
+    default <T> String executeStream(String databaseType, QueryPlan plan, RowMapper<T> mapper, Consumer<T> rowConsumer, Object... params) {
+        return executeStream(databaseType, plan.render(params), mapper, rowConsumer);
+    }
+
+    /**
+     * Écrit des documents en masse dans une collection, sans passer par le texte d'une requête
+     * Avec keyFields, un document existant ayant les mêmes valeurs pour ces champs est remplacé (upsert)
+     */
+    default String bulkWrite(String databaseType, String collection, List<String> keyFields, Iterable<?> documents) {
+        return "erreur: écriture en masse non supportée par ce moteur";
+    }
+
+    /**
+     * Vérifie que le moteur est utilisable
+     */
+    boolean testConnection();
+
+    /**
+     * Informations de diagnostic sur le moteur
+     */
+    String getEnvironmentInfo();
+
+    /**
+     * Libère les ressources du moteur (processus, connexions)
+     */
+    default void close() {}
+}
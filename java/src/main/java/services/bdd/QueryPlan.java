@@ -0,0 +1,155 @@
+package services.bdd;
+
+import services.bdd.unification.Statement;
+import services.bdd.unification.UnifiedParser;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Requête préparée du dialecte SQLUnification, compilée une seule fois
+ * Les valeurs sont liées aux marqueurs '?' au lieu d'être concaténées avec String.format
+ */
+public class QueryPlan {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final String text;
+    private final List<String> segments;
+    private volatile Statement statement;
+
+    QueryPlan(String normalizedText) {
+        this.text = normalizedText;
+        this.segments = splitOnPlaceholders(normalizedText);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getParameterCount() {
+        return segments.size() - 1;
+    }
+
+    /**
+     * Arbre syntaxique de la requête, analysé au premier appel puis réutilisé
+     */
+    public Statement getStatement() {
+        Statement parsed = statement;
+        if (parsed == null) {
+            parsed = UnifiedParser.parse(text);
+            statement = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * Texte de la requête avec les valeurs insérées sous forme de littéraux (pour le microlangage)
+     * Le microlangage analyse ce texte à chaque appel : seul le découpage autour des '?' est mis en cache
+     */
+    public String render(Object... params) {
+        int provided = params == null ? 0 : params.length;
+        if (provided != getParameterCount()) {
+            throw new IllegalArgumentException("Nombre de paramètres invalide: " + getParameterCount()
+                    + " attendu(s), " + provided + " fourni(s)");
+        }
+        if (provided == 0) {
+            return text;
+        }
+
+        StringBuilder sb = new StringBuilder(segments.get(0));
+        for (int i = 0; i < params.length; i++) {
+            sb.append(toLiteral(params[i])).append(segments.get(i + 1));
+        }
+        return sb.toString();
+    }
+
+    // Guillemet absent de la valeur si possible, sinon guillemet doublé (reconnu par les deux lexers)
+    private static String toLiteral(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "TRUE" : "FALSE";
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof BigInteger) {
+            return value.toString();
+        }
+        if (value instanceof LocalDateTime) {
+            return quote(DATE_TIME.format((LocalDateTime) value));
+        }
+        if (value instanceof LocalDate) {
+            return quote(value.toString());
+        }
+        return quote(value.toString());
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf('\'') == -1) {
+            return "'" + value + "'";
+        }
+        if (value.indexOf('"') == -1) {
+            return "\"" + value + "\"";
+        }
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    /**
+     * Découpe le texte autour des marqueurs '?' situés hors des chaînes
+     */
+    private static List<String> splitOnPlaceholders(String text) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                current.append(c);
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                current.append(c);
+            } else if (c == '?') {
+                parts.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        parts.add(current.toString());
+        return parts;
+    }
+
+    /**
+     * Forme canonique servant de clé de cache : espaces hors chaînes réduits à un seul
+     */
+    static String normalize(String query) {
+        StringBuilder sb = new StringBuilder(query.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            if (quote != 0 && c == quote) {
+                quote = 0;
+            } else if (quote == 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
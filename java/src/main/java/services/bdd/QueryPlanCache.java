@@ -0,0 +1,65 @@
+package services.bdd;
+
+import services.env.Env;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU borné des requêtes préparées, indexé par le texte normalisé de la requête
+ * L'analyse n'est économisée que par le moteur intégré (BDD_ENGINE=java), qui réutilise l'arbre du plan ;
+ * avec le microlangage, le plan ne sert qu'à produire le texte (render) et Python analyse chaque requête
+ */
+public class QueryPlanCache {
+
+    // Au-delà, la requête contient des données (JSON, base64) et ne sera jamais rejouée telle quelle
+    private static final int MAX_CACHEABLE_LENGTH = 4096;
+
+    private static final int CAPACITY = Integer.parseInt(Env.dotenv.get("QUERY_PLAN_CACHE_SIZE", "256"));
+
+    private static final Map<String, QueryPlan> plans = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, QueryPlan> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    private static long hits = 0;
+    private static long misses = 0;
+
+    /**
+     * Retourne le plan de la requête, en le créant au premier appel
+     */
+    public static QueryPlan get(String query) {
+        String normalized = QueryPlan.normalize(query);
+        if (normalized.length() > MAX_CACHEABLE_LENGTH) {
+            return new QueryPlan(normalized);
+        }
+
+        synchronized (plans) {
+            QueryPlan plan = plans.get(normalized);
+            if (plan != null) {
+                hits++;
+                return plan;
+            }
+            misses++;
+            plan = new QueryPlan(normalized);
+            plans.put(normalized, plan);
+            return plan;
+        }
+    }
+
+    public static void clear() {
+        synchronized (plans) {
+            plans.clear();
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    public static String getStats() {
+        synchronized (plans) {
+            return "Plans en cache: " + plans.size() + "/" + CAPACITY + ", hits: " + hits + ", misses: " + misses;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package services.bdd;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * Construit un objet à partir d'une ligne de résultat, directement depuis le parser JSON en flux
+ * Le parser est positionné sur le START_OBJECT de la ligne ; le mapper doit consommer l'objet jusqu'à son END_OBJECT
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T mapRow(JsonParser parser) throws IOException;
+
+    /**
+     * Ligne complète sous forme d'arbre Jackson
+     */
+    RowMapper<JsonNode> JSON_NODE = parser -> parser.readValueAsTree();
+
+    /**
+     * Valeur texte d'une seule colonne (null si absente ou nulle), les autres champs sont ignorés
+     */
+    static RowMapper<String> column(String name) {
+        return parser -> {
+            String value = null;
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken token = parser.nextToken();
+                if (field.equalsIgnoreCase(name) && token != JsonToken.VALUE_NULL) {
+                    value = token.isScalarValue() ? parser.getValueAsString() : null;
+                }
+                parser.skipChildren();
+            }
+            return value;
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package services.bdd;
+
+/**
+ * Résultat JSON illisible en cours de tableau : des lignes ont pu être transmises avant l'erreur
+ */
+public class TruncatedResultException extends RuntimeException {
+
+    private final int rowsRead;
+
+    public TruncatedResultException(int rowsRead, Throwable cause) {
+        super("résultat tronqué après " + rowsRead + " ligne(s): " + cause.getMessage(), cause);
+        this.rowsRead = rowsRead;
+    }
+
+    /**
+     * Nombre de lignes transmises au consommateur avant l'erreur
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+}
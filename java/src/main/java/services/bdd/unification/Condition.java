@@ -0,0 +1,48 @@
+package services.bdd.unification;
+
+/**
+ * Condition d'une clause WHERE : comparaison, test de nullité ou combinaison AND/OR
+ */
+public class Condition {
+
+    public enum Kind { COMPARISON, NULL_CHECK, LOGICAL }
+
+    public final Kind kind;
+    public final String field;
+    public final String operator;
+    public final Object value;
+    public final Condition left;
+    public final Condition right;
+
+    private Condition(Kind kind, String field, String operator, Object value, Condition left, Condition right) {
+        this.kind = kind;
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+        this.left = left;
+        this.right = right;
+    }
+
+    public static Condition comparison(String field, String operator, Object value) {
+        return new Condition(Kind.COMPARISON, field, operator, value, null, null);
+    }
+
+    public static Condition nullCheck(String field, boolean isNull) {
+        return new Condition(Kind.NULL_CHECK, field, isNull ? "IS NULL" : "IS NOT NULL", null, null, null);
+    }
+
+    public static Condition logical(String operator, Condition left, Condition right) {
+        return new Condition(Kind.LOGICAL, null, operator, null, left, right);
+    }
+
+    /**
+     * Copie de la condition avec les paramètres liés
+     */
+    public Condition bind(Object[] params) {
+        return switch (kind) {
+            case COMPARISON -> value instanceof Parameter ? comparison(field, operator, Parameter.resolve(value, params)) : this;
+            case NULL_CHECK -> this;
+            case LOGICAL -> logical(operator, left.bind(params), right.bind(params));
+        };
+    }
+}
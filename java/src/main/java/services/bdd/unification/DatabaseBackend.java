@@ -0,0 +1,31 @@
+package services.bdd.unification;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Exécution d'une commande analysée sur un type de base (une instance par type, connexions en pool)
+ */
+public interface DatabaseBackend {
+
+    /**
+     * Exécute la commande et renvoie le résultat au format texte du microlangage
+     */
+    String execute(Statement statement);
+
+    /**
+     * Exécute la commande en transmettant chaque ligne d'un SELECT dès sa lecture
+     * Retourne null si les lignes ont été transmises, sinon le message (erreur, commande sans résultat)
+     */
+    String stream(Statement statement, Consumer<Map<String, Object>> rowConsumer);
+
+    /**
+     * Vérifie que la base est joignable (ouvre le pool si besoin)
+     */
+    boolean ping();
+
+    /**
+     * Ferme le pool de connexions
+     */
+    void close();
+}
@@ -0,0 +1,174 @@
+package services.bdd.unification;
+
+import services.bdd.JsonRowReader;
+import services.bdd.QueryExecutor;
+import services.bdd.QueryPlan;
+import services.bdd.QueryPlanCache;
+import services.bdd.RowMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Implémentation Java du microlangage SQLUnification
+ * Analyse la commande dans la JVM et l'exécute sur des connexions en pool, sans processus externe
+ */
+public class JavaUnificationExecutor implements QueryExecutor {
+
+    private final PostgresBackend postgres = new PostgresBackend();
+    private final MongoBackend mongo = new MongoBackend();
+    private final Neo4jBackend neo4j = new Neo4jBackend();
+
+    @Override
+    public String executeQuery(String databaseType, String query) {
+        return executeQuery(databaseType, QueryPlanCache.get(query));
+    }
+
+    @Override
+    public String executeQuery(String databaseType, QueryPlan plan, Object... params) {
+        Statement statement;
+        try {
+            // L'arbre en cache est partagé : bind() en produit une copie avec les valeurs
+            statement = plan.getStatement().bind(params);
+        } catch (UnificationException e) {
+            return e.getMessage();
+        } catch (Exception e) {
+            return "Erreur d'exécution: " + e.getMessage();
+        }
+        return execute(databaseType, statement);
+    }
+
+    @Override
+    public <T> String executeStream(String databaseType, String query, RowMapper<T> mapper, Consumer<T> rowConsumer) {
+        return executeStream(databaseType, QueryPlanCache.get(query), mapper, rowConsumer);
+    }
+
+    @Override
+    public <T> String executeStream(String databaseType, QueryPlan plan, RowMapper<T> mapper, Consumer<T> rowConsumer, Object... params) {
+        Statement statement;
+        try {
+            // Même liaison des paramètres que executeQuery
+            statement = plan.getStatement().bind(params);
+        } catch (UnificationException e) {
+            return e.getMessage();
+        } catch (Exception e) {
+            return "Erreur d'exécution: " + e.getMessage();
+        }
+
+        DatabaseBackend backend = getBackend(databaseType);
+        if (backend == null) {
+            return "Type de base de données non supporté: " + databaseType;
+        }
+        try {
+            return backend.stream(statement, row -> {
+                try {
+                    rowConsumer.accept(JsonRowReader.readRow(PythonJson.toTree(row), mapper));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (Exception e) {
+            return "Erreur d'exécution: " + e.getMessage();
+        }
+    }
+
+    @Override
+    public String bulkWrite(String databaseType, String collection, List<String> keyFields, Iterable<?> documents) {
+        if (getBackend(databaseType) != mongo) {
+            return "erreur: écriture en masse non supportée pour " + databaseType;
+        }
+        return mongo.bulkWrite(collection, keyFields, documents);
+    }
+
+    /**
+     * Exécute une commande déjà analysée sur le backend correspondant au type de base
+     */
+    public String execute(String databaseType, Statement statement) {
+        DatabaseBackend backend = getBackend(databaseType);
+        if (backend == null) {
+            return "Type de base de données non supporté: " + databaseType;
+        }
+        try {
+            return backend.execute(statement);
+        } catch (Exception e) {
+            return "Erreur d'exécution: " + e.getMessage();
+        }
+    }
+
+    private DatabaseBackend getBackend(String databaseType) {
+        if (databaseType == null) {
+            return null;
+        }
+        return switch (databaseType.toLowerCase()) {
+            case "postgres", "sql" -> postgres;
+            case "mongo" -> mongo;
+            case "neo", "neo4j" -> neo4j;
+            default -> null;
+        };
+    }
+
+    /**
+     * Ouvre les trois pools et vérifie chaque base en parallèle (connexion PostgreSQL, ping MongoDB, connectivité Neo4j)
+     * Chaque vérification est limitée à BDD_CONNECT_TIMEOUT secondes ; l'état de chaque base est affiché
+     * Seules les bases de BDD_REQUIRED_DATABASES (postgres,mongo par défaut, celles des flux de l'application)
+     * font échouer l'initialisation : une base facultative injoignable est signalée sans bloquer le démarrage
+     */
+    @Override
+    public boolean testConnection() {
+        Map<String, DatabaseBackend> backends = new LinkedHashMap<>();
+        backends.put("postgres", postgres);
+        backends.put("mongo", mongo);
+        backends.put("neo4j", neo4j);
+        Map<String, CompletableFuture<Boolean>> checks = new LinkedHashMap<>();
+        backends.forEach((name, backend) -> checks.put(name, CompletableFuture.supplyAsync(backend::ping)));
+
+        Set<DatabaseBackend> required = new HashSet<>();
+        for (String name : UnificationConfig.get("BDD_REQUIRED_DATABASES", "postgres,mongo").split(",")) {
+            DatabaseBackend backend = getBackend(name.trim());
+            if (backend != null) {
+                required.add(backend);
+            }
+        }
+
+        long timeout = UnificationConfig.getInt("BDD_CONNECT_TIMEOUT", 10);
+        boolean ready = true;
+        for (Map.Entry<String, CompletableFuture<Boolean>> check : checks.entrySet()) {
+            boolean reachable;
+            try {
+                reachable = check.getValue().get(timeout, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                reachable = false;
+            }
+            boolean needed = required.contains(backends.get(check.getKey()));
+            System.out.println((reachable ? "✅ " : needed ? "❌ " : "⚠️ ") + check.getKey()
+                    + (reachable ? " joignable" : " injoignable") + (needed ? "" : " (facultative)"));
+            if (needed) {
+                ready &= reachable;
+            }
+        }
+        return ready;
+    }
+
+    @Override
+    public String getEnvironmentInfo() {
+        return "Mode: Moteur Java (JDBC/MongoDB/Neo4j en pool)\n"
+                + "PostgreSQL: " + UnificationConfig.get("POSTGRES_HOST", "localhost") + ":" + UnificationConfig.get("POSTGRES_PORT", "5432") + "\n"
+                + "MongoDB: " + UnificationConfig.get("MONGO_HOST", "localhost") + ":" + UnificationConfig.get("MONGO_PORT", "27017") + "\n"
+                + "Neo4j: " + UnificationConfig.get("NEO4J_HOST", "localhost") + ":" + UnificationConfig.get("NEO4J_BOLT_PORT", "7687") + "\n";
+    }
+
+    @Override
+    public void close() {
+        postgres.close();
+        mongo.close();
+        neo4j.close();
+    }
+}
@@ -0,0 +1,397 @@
+package services.bdd.unification;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Exécution MongoDB avec un MongoClient partagé (pool de connexions du driver)
+ * Reprend la logique de execute_mongodb() de SQLUnification1.py
+ */
+public class MongoBackend implements DatabaseBackend {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile MongoClient client;
+
+    private MongoClient getClient() {
+        if (client == null) {
+            synchronized (this) {
+                if (client == null) {
+                    String uri = String.format("mongodb://%s:%s@%s:%s/%s?authSource=admin",
+                            UnificationConfig.get("MONGO_USER", ""),
+                            UnificationConfig.get("MONGO_PASSWORD", ""),
+                            UnificationConfig.get("MONGO_HOST", "localhost"),
+                            UnificationConfig.get("MONGO_PORT", "27017"),
+                            UnificationConfig.get("MONGO_DB", "conversations_db"));
+                    MongoClientSettings settings = MongoClientSettings.builder()
+                            .applyConnectionString(new ConnectionString(uri))
+                            .applyToConnectionPoolSettings(pool -> pool
+                                    .maxSize(UnificationConfig.getInt("MONGO_POOL_SIZE", 10))
+                                    .maxConnectionIdleTime(5, TimeUnit.MINUTES))
+                            .build();
+                    client = MongoClients.create(settings);
+                }
+            }
+        }
+        return client;
+    }
+
+    @Override
+    public String execute(Statement stmt) {
+        return run(stmt, null);
+    }
+
+    @Override
+    public String stream(Statement stmt, Consumer<Map<String, Object>> rowConsumer) {
+        return run(stmt, rowConsumer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String run(Statement stmt, Consumer<Map<String, Object>> rowConsumer) {
+        MongoDatabase db;
+        try {
+            db = getClient().getDatabase(UnificationConfig.get("MONGO_DB", "admin"));
+        } catch (Exception e) {
+            System.out.println("Erreur de connexion MongoDB: " + e.getMessage());
+            return "Erreur de connexion à MongoDB";
+        }
+
+        try {
+            switch (stmt.type) {
+                case SELECT: {
+                    MongoCollection<Document> collection = db.getCollection(stmt.table);
+                    Bson filter = stmt.where != null ? buildQuery(stmt.where) : new Document();
+                    Document projection = null;
+                    if (!stmt.selectsAllColumns()) {
+                        projection = new Document();
+                        for (String column : stmt.columns) {
+                            projection.append(column, 1);
+                        }
+                        if (!stmt.columns.contains("_id")) {
+                            projection.append("_id", 0);
+                        }
+                    }
+                    Document sort = null;
+                    if (!stmt.orderBy.isEmpty()) {
+                        sort = new Document();
+                        for (Statement.OrderBy item : stmt.orderBy) {
+                            sort.append(item.field, item.descending ? -1 : 1);
+                        }
+                    }
+                    MongoIterable<Document> documents;
+                    if (stmt.distinct && projection != null) {
+                        // DISTINCT : regroupement côté serveur sur les colonnes demandées
+                        Document groupId = new Document();
+                        for (String column : stmt.columns) {
+                            groupId.append(column, "$" + column);
+                        }
+                        List<Document> pipeline = new ArrayList<>();
+                        pipeline.add(new Document("$match", filter));
+                        pipeline.add(new Document("$group", new Document("_id", groupId)));
+                        pipeline.add(new Document("$replaceRoot", new Document("newRoot", "$_id")));
+                        if (sort != null) {
+                            pipeline.add(new Document("$sort", sort));
+                        }
+                        if (stmt.offset != null) {
+                            pipeline.add(new Document("$skip", stmt.getOffset()));
+                        }
+                        if (stmt.limit != null) {
+                            pipeline.add(new Document("$limit", stmt.getLimit()));
+                        }
+                        documents = collection.aggregate(pipeline);
+                    } else {
+                        FindIterable<Document> find = collection.find(filter).projection(projection);
+                        if (sort != null) {
+                            find.sort(sort);
+                        }
+                        if (stmt.offset != null) {
+                            find.skip(stmt.getOffset());
+                        }
+                        if (stmt.limit != null) {
+                            find.limit(stmt.getLimit());
+                        }
+                        documents = find;
+                    }
+                    // Le curseur du driver lit les documents par lots
+                    List<Object> rows = new ArrayList<>();
+                    for (Document document : documents) {
+                        Map<String, Object> row = (Map<String, Object>) toPlain(document);
+                        if (rowConsumer != null) {
+                            rowConsumer.accept(row);
+                        } else {
+                            rows.add(row);
+                        }
+                    }
+                    return rowConsumer != null ? null : PythonJson.dumps(rows);
+                }
+                case INSERT:
+                    return insert(db.getCollection(stmt.table), stmt);
+                case UPDATE: {
+                    Bson filter = stmt.where != null ? buildQuery(stmt.where) : new Document();
+                    Document set = new Document();
+                    for (Statement.Assignment assignment : stmt.assignments) {
+                        set.append(assignment.field, assignment.value);
+                    }
+                    UpdateResult result = db.getCollection(stmt.table).updateMany(filter, new Document("$set", set));
+                    return "Mise à jour réussie. Documents correspondants: " + result.getMatchedCount()
+                            + ", Documents modifiés: " + result.getModifiedCount();
+                }
+                case DELETE: {
+                    Bson filter = stmt.where != null ? buildQuery(stmt.where) : new Document();
+                    DeleteResult result = db.getCollection(stmt.table).deleteMany(filter);
+                    return "Suppression réussie. Documents supprimés: " + result.getDeletedCount();
+                }
+                case CREATE:
+                    if ("TABLE".equals(stmt.objectType)) {
+                        db.createCollection(stmt.name);
+                        return "Collection " + stmt.name + " créée avec succès";
+                    }
+                    getClient().getDatabase(stmt.name);
+                    return "Base de données " + stmt.name + " créée avec succès";
+                case DROP:
+                    if ("TABLE".equals(stmt.objectType)) {
+                        db.getCollection(stmt.name).drop();
+                        return "Collection " + stmt.name + " supprimée avec succès";
+                    }
+                    getClient().getDatabase(stmt.name).drop();
+                    return "Base de données " + stmt.name + " supprimée avec succès";
+                default:
+                    return "Commande non reconnue";
+            }
+        } catch (Exception e) {
+            return "Erreur MongoDB: " + e.getMessage();
+        }
+    }
+
+    private String insert(MongoCollection<Document> collection, Statement stmt) throws Exception {
+        String json;
+        if (stmt.base64Data != null) {
+            try {
+                json = new String(Base64.getDecoder().decode(stmt.base64Data), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                return "Erreur de décodage Base64: " + e.getMessage();
+            }
+        } else if (stmt.jsonData != null) {
+            // Nettoyer les échappements Java qui ne sont pas valides en JSON
+            json = stmt.jsonData.replace("\\'", "'").replace("\\\\", "\\");
+        } else {
+            Document document = new Document();
+            for (int i = 0; i < stmt.values.size(); i++) {
+                String key = stmt.columns != null ? stmt.columns.get(i) : "field" + i;
+                document.append(key, stmt.values.get(i));
+            }
+            return insertOne(collection, document);
+        }
+
+        JsonNode parsed;
+        try {
+            parsed = objectMapper.readTree(json);
+        } catch (Exception e) {
+            return "Erreur de parsing JSON: " + e.getMessage();
+        }
+
+        if (parsed.isArray()) {
+            List<Document> documents = new ArrayList<>();
+            for (JsonNode element : parsed) {
+                documents.add(Document.parse(element.toString()));
+            }
+            InsertManyResult result = collection.insertMany(documents);
+            List<String> ids = new ArrayList<>();
+            for (BsonValue id : result.getInsertedIds().values()) {
+                ids.add(pythonRepr(id));
+            }
+            return "Documents insérés: " + ids.size() + " documents avec les IDs: [" + String.join(", ", ids) + "]";
+        }
+        if (parsed.isObject()) {
+            return insertOne(collection, Document.parse(parsed.toString()));
+        }
+        return "Erreur: Type de document non supporté: " + parsed.getNodeType();
+    }
+
+    /**
+     * Écriture en masse non ordonnée, par paquets de BULK_BATCH_SIZE documents
+     * Avec keyFields, chaque document remplace celui qui a les mêmes valeurs de clé (upsert), sinon il est inséré
+     */
+    public String bulkWrite(String collectionName, List<String> keyFields, Iterable<?> documents) {
+        MongoCollection<Document> collection;
+        try {
+            collection = getClient().getDatabase(UnificationConfig.get("MONGO_DB", "admin")).getCollection(collectionName);
+        } catch (Exception e) {
+            System.out.println("Erreur de connexion MongoDB: " + e.getMessage());
+            return "Erreur de connexion à MongoDB";
+        }
+
+        int batchSize = Math.max(1, UnificationConfig.getInt("BULK_BATCH_SIZE", 500));
+        BulkWriteOptions options = new BulkWriteOptions().ordered(false);
+        ReplaceOptions upsert = new ReplaceOptions().upsert(true);
+        List<WriteModel<Document>> batch = new ArrayList<>();
+        int inserted = 0;
+        int replaced = 0;
+        List<String> errors = new ArrayList<>();
+        try {
+            for (Object value : documents) {
+                Document document = Document.parse(objectMapper.writeValueAsString(value));
+                if (keyFields.isEmpty()) {
+                    batch.add(new InsertOneModel<>(document));
+                } else {
+                    Document filter = new Document();
+                    for (String key : keyFields) {
+                        filter.append(key, document.get(key));
+                    }
+                    batch.add(new ReplaceOneModel<>(filter, document, upsert));
+                }
+                if (batch.size() >= batchSize) {
+                    int[] counts = flushBatch(collection, batch, options, errors);
+                    inserted += counts[0];
+                    replaced += counts[1];
+                }
+            }
+            if (!batch.isEmpty()) {
+                int[] counts = flushBatch(collection, batch, options, errors);
+                inserted += counts[0];
+                replaced += counts[1];
+            }
+        } catch (Exception e) {
+            return "Erreur MongoDB: " + e.getMessage();
+        }
+
+        if (!errors.isEmpty()) {
+            return "Erreur MongoDB: " + errors.size() + " document(s) rejeté(s) (" + errors.get(0)
+                    + "). Documents insérés: " + inserted + ", remplacés: " + replaced;
+        }
+        return "Écriture en masse réussie. Documents insérés: " + inserted + ", remplacés: " + replaced;
+    }
+
+    // Envoie le paquet ; un document rejeté n'empêche pas l'écriture des autres (ordered=false)
+    private int[] flushBatch(MongoCollection<Document> collection, List<WriteModel<Document>> batch,
+                             BulkWriteOptions options, List<String> errors) {
+        BulkWriteResult result;
+        try {
+            result = collection.bulkWrite(batch, options);
+        } catch (MongoBulkWriteException e) {
+            result = e.getWriteResult();
+            e.getWriteErrors().forEach(error -> errors.add(error.getMessage()));
+        } finally {
+            batch.clear();
+        }
+        return new int[]{result.getInsertedCount() + result.getUpserts().size(), result.getModifiedCount()};
+    }
+
+    private String insertOne(MongoCollection<Document> collection, Document document) {
+        InsertOneResult result = collection.insertOne(document);
+        BsonValue id = result.getInsertedId();
+        return "Document inséré avec l'ID: " + (id != null && id.isObjectId() ? id.asObjectId().getValue().toHexString() : id);
+    }
+
+    private String pythonRepr(BsonValue id) {
+        if (id.isObjectId()) {
+            return "ObjectId('" + id.asObjectId().getValue().toHexString() + "')";
+        }
+        return String.valueOf(id);
+    }
+
+    public static Bson buildQuery(Condition condition) {
+        switch (condition.kind) {
+            case COMPARISON: {
+                String op = switch (condition.operator) {
+                    case "<>" -> "$ne";
+                    case "<" -> "$lt";
+                    case ">" -> "$gt";
+                    case "<=" -> "$lte";
+                    case ">=" -> "$gte";
+                    default -> "$eq";
+                };
+                return new Document(condition.field, new Document(op, condition.value));
+            }
+            case NULL_CHECK:
+                if ("IS NULL".equals(condition.operator)) {
+                    return new Document(condition.field, null);
+                }
+                return new Document(condition.field, new Document("$ne", null));
+            default: {
+                String op = "AND".equals(condition.operator) ? "$and" : "$or";
+                return new Document(op, List.of(buildQuery(condition.left), buildQuery(condition.right)));
+            }
+        }
+    }
+
+    // Conversion des types BSON en types simples (ObjectId -> chaîne, comme default=str)
+    static Object toPlain(Object value) {
+        if (value instanceof Document) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : ((Document) value).entrySet()) {
+                map.put(entry.getKey(), toPlain(entry.getValue()));
+            }
+            return map;
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                list.add(toPlain(item));
+            }
+            return list;
+        }
+        if (value instanceof ObjectId) {
+            return ((ObjectId) value).toHexString();
+        }
+        if (value instanceof Decimal128) {
+            return value.toString();
+        }
+        if (value instanceof Date) {
+            return PythonJson.str(value);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean ping() {
+        try {
+            getClient().getDatabase(UnificationConfig.get("MONGO_DB", "admin")).runCommand(new Document("ping", 1));
+            return true;
+        } catch (Exception e) {
+            System.out.println("Erreur de connexion MongoDB: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package services.bdd.unification;
+
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Config;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.Node;
+import org.neo4j.driver.types.Relationship;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Exécution Neo4j avec un Driver partagé (pool de sessions Bolt)
+ * Reprend la conversion SQL -> Cypher de execute_neo4j(), avec des paramètres Cypher
+ */
+public class Neo4jBackend implements DatabaseBackend {
+
+    private volatile Driver driver;
+
+    private Driver getDriver() {
+        if (driver == null) {
+            synchronized (this) {
+                if (driver == null) {
+                    String uri = "bolt://" + UnificationConfig.get("NEO4J_HOST", "localhost") + ":"
+                            + UnificationConfig.get("NEO4J_BOLT_PORT", "7687");
+                    Config config = Config.builder()
+                            .withMaxConnectionPoolSize(UnificationConfig.getInt("NEO4J_POOL_SIZE", 10))
+                            .build();
+                    driver = GraphDatabase.driver(uri, AuthTokens.basic(
+                            UnificationConfig.get("NEO4J_USER", "neo4j"),
+                            UnificationConfig.get("NEO4J_PASSWORD", "")), config);
+                }
+            }
+        }
+        return driver;
+    }
+
+    @Override
+    public String execute(Statement stmt) {
+        return run(stmt, null);
+    }
+
+    @Override
+    public String stream(Statement stmt, Consumer<Map<String, Object>> rowConsumer) {
+        return run(stmt, rowConsumer);
+    }
+
+    private String run(Statement stmt, Consumer<Map<String, Object>> rowConsumer) {
+        Session session;
+        try {
+            session = getDriver().session();
+        } catch (Exception e) {
+            System.out.println("Erreur de connexion Neo4j: " + e.getMessage());
+            return "Erreur de connexion à Neo4j";
+        }
+
+        try (Session s = session) {
+            switch (stmt.type) {
+                case SELECT: {
+                    Map<String, Object> params = new HashMap<>();
+                    String query = "MATCH (n:`" + stmt.table + "`)" + whereClause(stmt.where, params);
+                    String returnClause = stmt.distinct ? " RETURN DISTINCT " : " RETURN ";
+                    if (stmt.selectsAllColumns()) {
+                        query += returnClause + "n";
+                    } else {
+                        List<String> items = new ArrayList<>();
+                        for (String column : stmt.columns) {
+                            items.add("n.`" + column + "` AS `n." + column + "`");
+                        }
+                        query += returnClause + String.join(", ", items);
+                    }
+                    if (!stmt.orderBy.isEmpty()) {
+                        List<String> order = new ArrayList<>();
+                        for (Statement.OrderBy item : stmt.orderBy) {
+                            // Après RETURN DISTINCT, seules les colonnes retournées restent accessibles
+                            String field = stmt.distinct && !stmt.selectsAllColumns()
+                                    ? "`n." + item.field + "`" : "n.`" + item.field + "`";
+                            order.add(field + (item.descending ? " DESC" : " ASC"));
+                        }
+                        query += " ORDER BY " + String.join(", ", order);
+                    }
+                    if (stmt.offset != null) {
+                        query += " SKIP $skip";
+                        params.put("skip", stmt.getOffset());
+                    }
+                    if (stmt.limit != null) {
+                        query += " LIMIT $limit";
+                        params.put("limit", stmt.getLimit());
+                    }
+                    Result result = s.run(query, params);
+                    List<Object> rows = new ArrayList<>();
+                    while (result.hasNext()) {
+                        Record record = result.next();
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (String key : record.keys()) {
+                            row.put(key, toPlain(record.get(key)));
+                        }
+                        if (rowConsumer != null) {
+                            rowConsumer.accept(row);
+                        } else {
+                            rows.add(row);
+                        }
+                    }
+                    return rowConsumer != null ? null : PythonJson.dumps(rows);
+                }
+                case INSERT: {
+                    Map<String, Object> props = new LinkedHashMap<>();
+                    for (int i = 0; i < stmt.values.size(); i++) {
+                        String key = stmt.columns != null ? stmt.columns.get(i) : "prop" + i;
+                        props.put(key, stmt.values.get(i));
+                    }
+                    s.run("CREATE (n:`" + stmt.table + "` $props) RETURN n", Map.of("props", props)).consume();
+                    return "Nœud créé avec succès";
+                }
+                case UPDATE: {
+                    Map<String, Object> params = new HashMap<>();
+                    List<String> sets = new ArrayList<>();
+                    for (Statement.Assignment assignment : stmt.assignments) {
+                        String param = "set" + sets.size();
+                        sets.add("n.`" + assignment.field + "` = $" + param);
+                        params.put(param, assignment.value);
+                    }
+                    String query = "MATCH (n:`" + stmt.table + "`)" + whereClause(stmt.where, params)
+                            + " SET " + String.join(", ", sets);
+                    s.run(query, params).consume();
+                    return "Mise à jour réussie";
+                }
+                case DELETE: {
+                    Map<String, Object> params = new HashMap<>();
+                    s.run("MATCH (n:`" + stmt.table + "`)" + whereClause(stmt.where, params) + " DELETE n", params).consume();
+                    return "Suppression réussie";
+                }
+                case CREATE:
+                    if ("TABLE".equals(stmt.objectType)) {
+                        return "Neo4j ne supporte pas la création explicite de tables";
+                    }
+                    return "La création de base de données Neo4j nécessite l'API d'administration";
+                case DROP:
+                    if ("TABLE".equals(stmt.objectType)) {
+                        s.run("MATCH (n:`" + stmt.name + "`) DELETE n").consume();
+                        return "Tous les nœuds avec le label " + stmt.name + " ont été supprimés";
+                    }
+                    return "La suppression de base de données Neo4j nécessite l'API d'administration";
+                default:
+                    return "Commande non reconnue";
+            }
+        } catch (Exception e) {
+            return "Erreur Neo4j: " + e.getMessage();
+        }
+    }
+
+    private String whereClause(Condition condition, Map<String, Object> params) {
+        return condition == null ? "" : " WHERE " + buildCondition(condition, params);
+    }
+
+    private String buildCondition(Condition condition, Map<String, Object> params) {
+        switch (condition.kind) {
+            case COMPARISON: {
+                String param = "p" + params.size();
+                params.put(param, condition.value);
+                return "n.`" + condition.field + "` " + condition.operator + " $" + param;
+            }
+            case NULL_CHECK:
+                return "n.`" + condition.field + "` " + condition.operator;
+            default:
+                return "(" + buildCondition(condition.left, params) + " " + condition.operator + " "
+                        + buildCondition(condition.right, params) + ")";
+        }
+    }
+
+    private Object toPlain(Value value) {
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        Object object = value.asObject();
+        if (object instanceof Node) {
+            return new LinkedHashMap<>(((Node) object).asMap());
+        }
+        if (object instanceof Relationship) {
+            return new LinkedHashMap<>(((Relationship) object).asMap());
+        }
+        return object;
+    }
+
+    @Override
+    public boolean ping() {
+        try {
+            getDriver().verifyConnectivity();
+            return true;
+        } catch (Exception e) {
+            System.out.println("Erreur de connexion Neo4j: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (driver != null) {
+            driver.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package services.bdd.unification;
+
+/**
+ * Marqueur '?' d'une requête préparée, remplacé par la valeur liée à l'exécution
+ */
+public class Parameter {
+
+    public final int index;
+
+    public Parameter(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Valeur effective : le paramètre lié si value est un marqueur, value sinon
+     */
+    public static Object resolve(Object value, Object[] params) {
+        if (value instanceof Parameter) {
+            return params[((Parameter) value).index];
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "?" + index;
+    }
+}
@@ -0,0 +1,289 @@
+package services.bdd.unification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Exécution PostgreSQL via JDBC avec un pool HikariCP
+ * Génère le même SQL que execute_postgresql() de SQLUnification1.py
+ */
+public class PostgresBackend implements DatabaseBackend {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private volatile HikariDataSource dataSource;
+
+    private HikariDataSource getDataSource() {
+        if (dataSource == null) {
+            synchronized (this) {
+                if (dataSource == null) {
+                    HikariConfig config = new HikariConfig();
+                    config.setJdbcUrl(String.format("jdbc:postgresql://%s:%s/%s",
+                            UnificationConfig.get("POSTGRES_HOST", "localhost"),
+                            UnificationConfig.get("POSTGRES_PORT", "5432"),
+                            UnificationConfig.get("POSTGRES_DB", "postgres")));
+                    config.setUsername(UnificationConfig.get("POSTGRES_USER", "postgres"));
+                    config.setPassword(UnificationConfig.get("POSTGRES_PASSWORD", ""));
+                    config.setMaximumPoolSize(UnificationConfig.getInt("POSTGRES_POOL_SIZE", 5));
+                    config.setMinimumIdle(1);
+                    config.setPoolName("postgres-unification");
+                    // Chaînes envoyées sans type, comme les littéraux de psycopg2
+                    config.addDataSourceProperty("stringtype", "unspecified");
+                    dataSource = new HikariDataSource(config);
+                }
+            }
+        }
+        return dataSource;
+    }
+
+    @Override
+    public String execute(Statement stmt) {
+        return run(stmt, null);
+    }
+
+    @Override
+    public String stream(Statement stmt, Consumer<Map<String, Object>> rowConsumer) {
+        return run(stmt, rowConsumer);
+    }
+
+    private String run(Statement stmt, Consumer<Map<String, Object>> rowConsumer) {
+        Connection connection;
+        try {
+            connection = getDataSource().getConnection();
+        } catch (Exception e) {
+            System.out.println("Erreur de connexion PostgreSQL: " + e.getMessage());
+            return "Erreur de connexion à PostgreSQL";
+        }
+
+        try (Connection conn = connection) {
+            conn.setAutoCommit(false);
+            try {
+                String result = executeOn(conn, stmt, rowConsumer);
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                }
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                }
+                return "Erreur PostgreSQL: " + e.getMessage();
+            }
+        } catch (SQLException e) {
+            return "Erreur PostgreSQL: " + e.getMessage();
+        }
+    }
+
+    private String executeOn(Connection conn, Statement stmt, Consumer<Map<String, Object>> rowConsumer) throws SQLException {
+        switch (stmt.type) {
+            case SELECT: {
+                String columns = stmt.selectsAllColumns() ? "*" : joinQuoted(stmt.columns);
+                StringBuilder query = new StringBuilder("SELECT " + (stmt.distinct ? "DISTINCT " : "")
+                        + columns + " FROM \"" + stmt.table + "\"");
+                List<Object> params = new ArrayList<>();
+                if (stmt.where != null) {
+                    query.append(" WHERE ").append(buildWhereClause(stmt.where, params));
+                }
+                if (!stmt.orderBy.isEmpty()) {
+                    List<String> order = new ArrayList<>();
+                    for (Statement.OrderBy item : stmt.orderBy) {
+                        order.add("\"" + item.field + "\"" + (item.descending ? " DESC" : " ASC"));
+                    }
+                    query.append(" ORDER BY ").append(String.join(", ", order));
+                }
+                if (stmt.limit != null) {
+                    query.append(" LIMIT ?");
+                    params.add(stmt.getLimit());
+                }
+                if (stmt.offset != null) {
+                    query.append(" OFFSET ?");
+                    params.add(stmt.getOffset());
+                }
+                try (PreparedStatement ps = prepare(conn, query.toString(), params)) {
+                    if (rowConsumer == null) {
+                        try (ResultSet rs = ps.executeQuery()) {
+                            List<Map<String, Object>> rows = new ArrayList<>();
+                            readRows(rs, rows::add);
+                            return PythonJson.dumps(rows);
+                        }
+                    }
+                    // Hors autocommit, le driver lit les lignes par paquets via un curseur serveur
+                    ps.setFetchSize(STREAM_FETCH_SIZE);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        readRows(rs, rowConsumer);
+                        return null;
+                    }
+                }
+            }
+            case INSERT: {
+                if (stmt.values == null) {
+                    throw new UnificationException("VALUES_JSON/VALUES_BASE64 ne sont pas supportés pour PostgreSQL");
+                }
+                String placeholders = String.join(", ", Collections.nCopies(stmt.values.size(), "?"));
+                String query = stmt.columns != null
+                        ? "INSERT INTO " + stmt.table + " (" + String.join(", ", stmt.columns) + ") VALUES (" + placeholders + ")"
+                        : "INSERT INTO " + stmt.table + " VALUES (" + placeholders + ")";
+                try (PreparedStatement ps = prepare(conn, query, stmt.values)) {
+                    return "Insertion réussie. Lignes affectées: " + ps.executeUpdate();
+                }
+            }
+            case UPDATE: {
+                List<Object> params = new ArrayList<>();
+                List<String> sets = new ArrayList<>();
+                for (Statement.Assignment assignment : stmt.assignments) {
+                    sets.add(assignment.field + " = ?");
+                    params.add(assignment.value);
+                }
+                StringBuilder query = new StringBuilder("UPDATE " + stmt.table + " SET " + String.join(", ", sets));
+                if (stmt.where != null) {
+                    query.append(" WHERE ").append(buildWhereClause(stmt.where, params));
+                }
+                try (PreparedStatement ps = prepare(conn, query.toString(), params)) {
+                    return "Mise à jour réussie. Lignes affectées: " + ps.executeUpdate();
+                }
+            }
+            case DELETE: {
+                List<Object> params = new ArrayList<>();
+                StringBuilder query = new StringBuilder("DELETE FROM " + stmt.table);
+                if (stmt.where != null) {
+                    query.append(" WHERE ").append(buildWhereClause(stmt.where, params));
+                }
+                try (PreparedStatement ps = prepare(conn, query.toString(), params)) {
+                    return "Suppression réussie. Lignes affectées: " + ps.executeUpdate();
+                }
+            }
+            case CREATE: {
+                if ("TABLE".equals(stmt.objectType)) {
+                    List<String> fields = new ArrayList<>();
+                    for (Statement.FieldDef field : stmt.fields) {
+                        fields.add(field.name + " " + field.type);
+                    }
+                    executeDdl(conn, "CREATE TABLE " + stmt.name + " (" + String.join(", ", fields) + ")");
+                    return "Table " + stmt.name + " créée avec succès";
+                }
+                executeDdl(conn, "CREATE DATABASE " + stmt.name);
+                return "Base de données " + stmt.name + " créée avec succès";
+            }
+            case DROP: {
+                if ("TABLE".equals(stmt.objectType)) {
+                    executeDdl(conn, "DROP TABLE " + stmt.name);
+                    return "Table " + stmt.name + " supprimée avec succès";
+                }
+                executeDdl(conn, "DROP DATABASE " + stmt.name);
+                return "Base de données " + stmt.name + " supprimée avec succès";
+            }
+            default:
+                return "Commande non reconnue";
+        }
+    }
+
+    private void executeDdl(Connection conn, String sql) throws SQLException {
+        // CREATE/DROP DATABASE ne peuvent pas tourner dans une transaction
+        conn.setAutoCommit(true);
+        try (java.sql.Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private String buildWhereClause(Condition condition, List<Object> params) {
+        switch (condition.kind) {
+            case COMPARISON:
+                params.add(condition.value);
+                return "\"" + condition.field + "\" " + condition.operator + " ?";
+            case NULL_CHECK:
+                return "\"" + condition.field + "\" " + condition.operator;
+            default:
+                return "(" + buildWhereClause(condition.left, params) + " " + condition.operator + " "
+                        + buildWhereClause(condition.right, params) + ")";
+        }
+    }
+
+    private PreparedStatement prepare(Connection conn, String sql, List<Object> params) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql);
+        for (int i = 0; i < params.size(); i++) {
+            Object value = params.get(i);
+            if (value instanceof java.time.LocalDateTime) {
+                value = java.sql.Timestamp.valueOf((java.time.LocalDateTime) value);
+            }
+            ps.setObject(i + 1, value);
+        }
+        return ps;
+    }
+
+    private void readRows(ResultSet rs, Consumer<Map<String, Object>> rowConsumer) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int count = meta.getColumnCount();
+        while (rs.next()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i <= count; i++) {
+                row.put(meta.getColumnLabel(i), convert(rs.getObject(i)));
+            }
+            rowConsumer.accept(row);
+        }
+    }
+
+    // Conversions alignées sur psycopg2 : json/jsonb décodés, tableaux en listes
+    private Object convert(Object value) throws SQLException {
+        if (value instanceof org.postgresql.util.PGobject) {
+            org.postgresql.util.PGobject pg = (org.postgresql.util.PGobject) value;
+            if (("json".equals(pg.getType()) || "jsonb".equals(pg.getType())) && pg.getValue() != null) {
+                try {
+                    return objectMapper.readValue(pg.getValue(), Object.class);
+                } catch (Exception e) {
+                    return pg.getValue();
+                }
+            }
+            return pg.getValue();
+        }
+        if (value instanceof Array) {
+            Object[] items = (Object[]) ((Array) value).getArray();
+            List<Object> list = new ArrayList<>();
+            for (Object item : items) {
+                list.add(convert(item));
+            }
+            return list;
+        }
+        return value;
+    }
+
+    private String joinQuoted(List<String> names) {
+        List<String> quoted = new ArrayList<>();
+        for (String name : names) {
+            quoted.add("\"" + name + "\"");
+        }
+        return String.join(", ", quoted);
+    }
+
+    @Override
+    public boolean ping() {
+        // Emprunt d'une connexion du pool, validée par le pilote
+        try (Connection conn = getDataSource().getConnection()) {
+            return conn.isValid(5);
+        } catch (Exception e) {
+            System.out.println("Erreur de connexion PostgreSQL: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+}
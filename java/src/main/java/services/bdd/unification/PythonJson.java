@@ -0,0 +1,208 @@
+package services.bdd.unification;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Sérialisation JSON identique à json.dumps(..., default=str, indent=2) côté Python
+ * Garantit que les appelants reçoivent exactement le même texte qu'avec le microlangage
+ */
+public class PythonJson {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public static String dumps(Object value) {
+        StringBuilder sb = new StringBuilder();
+        write(sb, value, 0);
+        return sb.toString();
+    }
+
+    /**
+     * Même conversion que dumps() mais vers un arbre Jackson (lecture en flux, sans passer par le texte)
+     */
+    public static JsonNode toTree(Object value) {
+        if (value == null) {
+            return JsonNodeFactory.instance.nullNode();
+        } else if (value instanceof Boolean) {
+            return JsonNodeFactory.instance.booleanNode((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return JsonNodeFactory.instance.numberNode(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            return JsonNodeFactory.instance.numberNode((Long) value);
+        } else if (value instanceof BigInteger) {
+            return JsonNodeFactory.instance.numberNode((BigInteger) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            return JsonNodeFactory.instance.numberNode(((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            return JsonNodeFactory.instance.textNode((String) value);
+        } else if (value instanceof Map) {
+            ObjectNode node = JsonNodeFactory.instance.objectNode();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                node.set(String.valueOf(entry.getKey()), toTree(entry.getValue()));
+            }
+            return node;
+        } else if (value instanceof Collection || value instanceof Object[]) {
+            ArrayNode node = JsonNodeFactory.instance.arrayNode();
+            Object[] items = value instanceof Collection ? ((Collection<?>) value).toArray() : (Object[]) value;
+            for (Object item : items) {
+                node.add(toTree(item));
+            }
+            return node;
+        }
+        return JsonNodeFactory.instance.textNode(str(value));
+    }
+
+    private static void write(StringBuilder sb, Object value, int depth) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Boolean) {
+            sb.append((Boolean) value ? "true" : "false");
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger) {
+            sb.append(value);
+        } else if (value instanceof Double || value instanceof Float) {
+            writeFloat(sb, ((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            writeString(sb, (String) value);
+        } else if (value instanceof Map) {
+            writeObject(sb, (Map<?, ?>) value, depth);
+        } else if (value instanceof Collection) {
+            writeArray(sb, ((Collection<?>) value).toArray(), depth);
+        } else if (value instanceof Object[]) {
+            writeArray(sb, (Object[]) value, depth);
+        } else {
+            // default=str : les types non sérialisables deviennent des chaînes
+            writeString(sb, str(value));
+        }
+    }
+
+    private static void writeObject(StringBuilder sb, Map<?, ?> map, int depth) {
+        if (map.isEmpty()) {
+            sb.append("{}");
+            return;
+        }
+        sb.append("{");
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                sb.append(",");
+            }
+            first = false;
+            newline(sb, depth + 1);
+            writeString(sb, String.valueOf(entry.getKey()));
+            sb.append(": ");
+            write(sb, entry.getValue(), depth + 1);
+        }
+        newline(sb, depth);
+        sb.append("}");
+    }
+
+    private static void writeArray(StringBuilder sb, Object[] items, int depth) {
+        if (items.length == 0) {
+            sb.append("[]");
+            return;
+        }
+        sb.append("[");
+        for (int i = 0; i < items.length; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            newline(sb, depth + 1);
+            write(sb, items[i], depth + 1);
+        }
+        newline(sb, depth);
+        sb.append("]");
+    }
+
+    private static void newline(StringBuilder sb, int depth) {
+        sb.append("\n");
+        sb.append("  ".repeat(depth));
+    }
+
+    // ensure_ascii=True : tout caractère non ASCII est échappé en \\uXXXX
+    private static void writeString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static void writeFloat(StringBuilder sb, double d) {
+        if (Double.isNaN(d)) {
+            sb.append("NaN");
+        } else if (Double.isInfinite(d)) {
+            sb.append(d > 0 ? "Infinity" : "-Infinity");
+        } else {
+            sb.append(Double.toString(d));
+        }
+    }
+
+    /**
+     * Équivalent de str() Python pour les types renvoyés par les drivers
+     */
+    public static String str(Object value) {
+        if (value instanceof java.sql.Timestamp) {
+            return str(((java.sql.Timestamp) value).toLocalDateTime());
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().toString();
+        }
+        if (value instanceof java.sql.Time) {
+            return ((java.sql.Time) value).toLocalTime().toString();
+        }
+        if (value instanceof Date) {
+            return str(LocalDateTime.ofInstant(((Date) value).toInstant(), java.time.ZoneOffset.UTC));
+        }
+        if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            return DATE_TIME.format(dateTime) + microseconds(dateTime.getNano());
+        }
+        if (value instanceof OffsetDateTime) {
+            OffsetDateTime dateTime = (OffsetDateTime) value;
+            String offset = dateTime.getOffset().getId();
+            return str(dateTime.toLocalDateTime()) + ("Z".equals(offset) ? "+00:00" : offset);
+        }
+        if (value instanceof LocalDate || value instanceof LocalTime) {
+            return value.toString();
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return String.valueOf(value);
+    }
+
+    private static String microseconds(int nanos) {
+        int micros = nanos / 1000;
+        return micros == 0 ? "" : String.format(".%06d", micros);
+    }
+}
@@ -0,0 +1,142 @@
+package services.bdd.unification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arbre syntaxique d'une commande SQLUnification
+ * Reprend la structure des dictionnaires produits par le parser Python
+ */
+public class Statement {
+
+    public enum Type { SELECT, INSERT, UPDATE, DELETE, CREATE, DROP }
+
+    public final Type type;
+    public String table;
+    public List<String> columns;
+    public Condition where;
+    public List<Object> values;
+    public List<Assignment> assignments;
+    public String base64Data;
+    public String jsonData;
+    public String objectType;
+    public String name;
+    public List<FieldDef> fields;
+    public boolean distinct;
+    public List<OrderBy> orderBy = new ArrayList<>();
+    // Nombre ou Parameter tant que la commande n'est pas liée
+    public Object limit;
+    public Object offset;
+    public int parameterCount;
+
+    public Statement(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Copie de la commande avec les marqueurs '?' remplacés par les valeurs
+     * L'original n'est jamais modifié : il reste partagé dans le cache de plans
+     */
+    public Statement bind(Object[] params) {
+        int provided = params == null ? 0 : params.length;
+        if (provided != parameterCount) {
+            throw new UnificationException("Nombre de paramètres invalide: " + parameterCount + " attendu(s), " + provided + " fourni(s)");
+        }
+        if (parameterCount == 0) {
+            return this;
+        }
+
+        Statement bound = new Statement(type);
+        bound.table = table;
+        bound.columns = columns;
+        bound.base64Data = base64Data;
+        bound.jsonData = jsonData;
+        bound.objectType = objectType;
+        bound.name = name;
+        bound.fields = fields;
+        bound.distinct = distinct;
+        bound.orderBy = orderBy;
+        bound.limit = Parameter.resolve(limit, params);
+        bound.offset = Parameter.resolve(offset, params);
+        bound.where = where != null ? where.bind(params) : null;
+        if (values != null) {
+            bound.values = new ArrayList<>();
+            for (Object value : values) {
+                bound.values.add(Parameter.resolve(value, params));
+            }
+        }
+        if (assignments != null) {
+            bound.assignments = new ArrayList<>();
+            for (Assignment assignment : assignments) {
+                bound.assignments.add(new Assignment(assignment.field, Parameter.resolve(assignment.value, params)));
+            }
+        }
+        return bound;
+    }
+
+    public boolean selectsAllColumns() {
+        return columns == null || (columns.size() == 1 && "*".equals(columns.get(0)));
+    }
+
+    public Integer getLimit() {
+        return toCount(limit, "LIMIT");
+    }
+
+    public Integer getOffset() {
+        return toCount(offset, "OFFSET");
+    }
+
+    private static Integer toCount(Object value, String clause) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            int count = value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString().trim());
+            if (count < 0) {
+                throw new UnificationException(clause + " doit être positif: " + value);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new UnificationException(clause + " doit être un entier: " + value);
+        }
+    }
+
+    /**
+     * Affectation "champ = valeur" d'un UPDATE
+     */
+    public static class Assignment {
+        public final String field;
+        public final Object value;
+
+        public Assignment(String field, Object value) {
+            this.field = field;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Critère "champ ASC|DESC" d'un ORDER BY
+     */
+    public static class OrderBy {
+        public final String field;
+        public final boolean descending;
+
+        public OrderBy(String field, boolean descending) {
+            this.field = field;
+            this.descending = descending;
+        }
+    }
+
+    /**
+     * Définition "nom type" d'un CREATE TABLE
+     */
+    public static class FieldDef {
+        public final String name;
+        public final String type;
+
+        public FieldDef(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package services.bdd.unification;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import services.env.Env;
+
+/**
+ * Configuration des connexions du moteur Java
+ * Lit le .env de l'application puis celui du microlangage (mêmes clés que SQLUnification1.py)
+ */
+public class UnificationConfig {
+
+    private static final Dotenv microlangageEnv = Dotenv.configure()
+            .directory("../microlangage")
+            .ignoreIfMissing()
+            .load();
+
+    public static String get(String key, String defaultValue) {
+        String value = Env.dotenv.get(key);
+        if (value == null || value.isEmpty()) {
+            value = microlangageEnv.get(key);
+        }
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(get(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
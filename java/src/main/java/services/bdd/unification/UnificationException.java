@@ -0,0 +1,15 @@
+package services.bdd.unification;
+
+/**
+ * Erreur d'analyse ou d'exécution d'une commande SQLUnification
+ */
+public class UnificationException extends RuntimeException {
+
+    public UnificationException(String message) {
+        super(message);
+    }
+
+    public UnificationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,261 @@
+package services.bdd.unification;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Analyseur lexical du dialecte SQLUnification
+ * Mêmes règles que le lexer PLY de SQLUnification1.py (chaînes prioritaires, caractères spéciaux ignorés)
+ */
+public class UnifiedLexer {
+
+    public enum TokenType {
+        NAME, KEYWORD, STRING, JSON_STRING, NUMBER, PARAM,
+        COMMA, LPAREN, RPAREN, EQ, NEQ, LT, GT, LTE, GTE, STAR,
+        COLON, LBRACKET, RBRACKET, LBRACE, RBRACE, AMPERSAND, DOT, BACKSLASH
+    }
+
+    public static class Token {
+        public final TokenType type;
+        public final String text;
+        public final Object value;
+
+        Token(TokenType type, String text, Object value) {
+            this.type = type;
+            this.text = text;
+            this.value = value;
+        }
+
+        public boolean is(TokenType type) {
+            return this.type == type;
+        }
+
+        public boolean isKeyword(String keyword) {
+            return type == TokenType.KEYWORD && text.equals(keyword);
+        }
+
+        @Override
+        public String toString() {
+            return type + "(" + text + ")";
+        }
+    }
+
+    // Mots clés avec les variantes courantes (INCERT)
+    private static final Map<String, String> RESERVED = Map.ofEntries(
+            Map.entry("SELECT", "SELECT"), Map.entry("FROM", "FROM"), Map.entry("WHERE", "WHERE"),
+            Map.entry("AND", "AND"), Map.entry("OR", "OR"), Map.entry("IS", "IS"),
+            Map.entry("NULL", "NULL"), Map.entry("NOT", "NOT"), Map.entry("INSERT", "INSERT"),
+            Map.entry("INCERT", "INSERT"), Map.entry("INTO", "INTO"), Map.entry("VALUES", "VALUES"),
+            Map.entry("VALUES_BASE64", "VALUES_BASE64"), Map.entry("VALUES_JSON", "VALUES_JSON"),
+            Map.entry("UPDATE", "UPDATE"), Map.entry("SET", "SET"), Map.entry("DELETE", "DELETE"),
+            Map.entry("CREATE", "CREATE"), Map.entry("DROP", "DROP"), Map.entry("TABLE", "TABLE"),
+            Map.entry("DATABASE", "DATABASE"), Map.entry("TRUE", "TRUE"), Map.entry("FALSE", "FALSE"),
+            Map.entry("DISTINCT", "DISTINCT"), Map.entry("ORDER", "ORDER"), Map.entry("BY", "BY"),
+            Map.entry("ASC", "ASC"), Map.entry("DESC", "DESC"), Map.entry("LIMIT", "LIMIT"),
+            Map.entry("OFFSET", "OFFSET")
+    );
+
+    // Mots clés de tri et de pagination : reconnus seulement à leur place,
+    // ailleurs ce sont des noms de colonnes ordinaires (desc, order, offset...)
+    private static final Set<String> CONTEXTUAL_KEYWORDS = Set.of("DISTINCT", "ORDER", "BY", "ASC", "DESC", "LIMIT", "OFFSET");
+
+    // '?' est réservé aux paramètres des requêtes préparées
+    private static final String SPECIAL_CHARS = "àáâãäåæçèéêëìíîïðñòóôõöøùúûüýÿ%/-«»";
+
+    public static List<Token> tokenize(String input) {
+        List<Token> tokens = new ArrayList<>();
+        int pos = 0;
+        int length = input.length();
+
+        while (pos < length) {
+            char c = input.charAt(pos);
+
+            if (Character.isWhitespace(c)) {
+                pos++;
+                continue;
+            }
+
+            // Bloc JSON '{...}' prioritaire sur les chaînes simples
+            if (c == '\'' && pos + 1 < length && input.charAt(pos + 1) == '{') {
+                int end = input.indexOf('\'', pos + 1);
+                if (end != -1 && input.charAt(end - 1) == '}') {
+                    String content = input.substring(pos + 1, end);
+                    tokens.add(new Token(TokenType.JSON_STRING, content, content));
+                    pos = end + 1;
+                    continue;
+                }
+            }
+
+            if (c == '\'' || c == '"') {
+                // Guillemet doublé dans la chaîne : caractère littéral ('l''école')
+                StringBuilder content = new StringBuilder();
+                int end = pos + 1;
+                while (end < length) {
+                    char current = input.charAt(end);
+                    if (current == c) {
+                        if (end + 1 < length && input.charAt(end + 1) == c) {
+                            content.append(c);
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    content.append(current);
+                    end++;
+                }
+                if (end < length) {
+                    tokens.add(new Token(TokenType.STRING, content.toString(), content.toString()));
+                    pos = end + 1;
+                    continue;
+                }
+                // Guillemet non fermé : caractère illégal ignoré comme dans PLY
+                pos++;
+                continue;
+            }
+
+            if (Character.isLetter(c) && c < 128 || c == '_') {
+                int start = pos;
+                while (pos < length && isNameChar(input.charAt(pos))) {
+                    pos++;
+                }
+                String word = input.substring(start, pos);
+                String keyword = RESERVED.get(word.toUpperCase());
+                if (keyword != null && CONTEXTUAL_KEYWORDS.contains(keyword) && !isKeywordHere(keyword, tokens, input, pos)) {
+                    keyword = null;
+                }
+                if (keyword != null) {
+                    tokens.add(new Token(TokenType.KEYWORD, keyword, keyword));
+                } else {
+                    tokens.add(new Token(TokenType.NAME, word, word));
+                }
+                continue;
+            }
+
+            // Nombre signé : le '-' suivi d'un chiffre n'est pas un caractère spécial
+            if (c == '-' && pos + 1 < length && input.charAt(pos + 1) >= '0' && input.charAt(pos + 1) <= '9') {
+                int start = pos++;
+                while (pos < length && input.charAt(pos) >= '0' && input.charAt(pos) <= '9') {
+                    pos++;
+                }
+                String digits = input.substring(start, pos);
+                tokens.add(new Token(TokenType.NUMBER, digits, parseNumber(digits)));
+                continue;
+            }
+
+            if (SPECIAL_CHARS.indexOf(c) != -1) {
+                pos++;
+                continue;
+            }
+
+            if (c >= '0' && c <= '9') {
+                int start = pos;
+                while (pos < length && input.charAt(pos) >= '0' && input.charAt(pos) <= '9') {
+                    pos++;
+                }
+                String digits = input.substring(start, pos);
+                tokens.add(new Token(TokenType.NUMBER, digits, parseNumber(digits)));
+                continue;
+            }
+
+            if (pos + 1 < length) {
+                String pair = input.substring(pos, pos + 2);
+                TokenType pairType = switch (pair) {
+                    case "<>" -> TokenType.NEQ;
+                    case "<=" -> TokenType.LTE;
+                    case ">=" -> TokenType.GTE;
+                    default -> null;
+                };
+                if (pairType != null) {
+                    tokens.add(new Token(pairType, pair, pair));
+                    pos += 2;
+                    continue;
+                }
+            }
+
+            TokenType single = switch (c) {
+                case ',' -> TokenType.COMMA;
+                case '(' -> TokenType.LPAREN;
+                case ')' -> TokenType.RPAREN;
+                case '=' -> TokenType.EQ;
+                case '<' -> TokenType.LT;
+                case '>' -> TokenType.GT;
+                case '*' -> TokenType.STAR;
+                case ':' -> TokenType.COLON;
+                case '[' -> TokenType.LBRACKET;
+                case ']' -> TokenType.RBRACKET;
+                case '{' -> TokenType.LBRACE;
+                case '}' -> TokenType.RBRACE;
+                case '&' -> TokenType.AMPERSAND;
+                case '.' -> TokenType.DOT;
+                case '\\' -> TokenType.BACKSLASH;
+                case '?' -> TokenType.PARAM;
+                default -> null;
+            };
+            if (single != null) {
+                tokens.add(new Token(single, String.valueOf(c), String.valueOf(c)));
+            }
+            // Sinon caractère illégal : ignoré comme t_error
+            pos++;
+        }
+        return tokens;
+    }
+
+    /**
+     * Vrai si le mot est employé comme mot clé à cette position (même règle que is_keyword_here du microlangage)
+     */
+    private static boolean isKeywordHere(String word, List<Token> tokens, String input, int end) {
+        Token previous = tokens.isEmpty() ? null : tokens.get(tokens.size() - 1);
+        String after = input.substring(end).stripLeading();
+        switch (word) {
+            case "DISTINCT":
+                return isKeyword(previous, "SELECT") && !after.startsWith(",") && !startsWithWord(after, "FROM");
+            case "ORDER":
+                return startsWithWord(after, "BY");
+            case "BY":
+                return isKeyword(previous, "ORDER");
+            case "ASC":
+            case "DESC":
+                // Après une colonne de la clause ORDER BY
+                return previous != null && previous.type == TokenType.NAME && hasOrderBy(tokens);
+            default:
+                // LIMIT, OFFSET : suivis d'un nombre ou d'un paramètre
+                return !after.isEmpty() && (Character.isDigit(after.charAt(0)) || after.charAt(0) == '?'
+                        || after.charAt(0) == '-' && after.length() > 1 && Character.isDigit(after.charAt(1)));
+        }
+    }
+
+    private static boolean isKeyword(Token token, String keyword) {
+        return token != null && token.type == TokenType.KEYWORD && token.text.equals(keyword);
+    }
+
+    private static boolean startsWithWord(String text, String word) {
+        return text.regionMatches(true, 0, word, 0, word.length())
+                && (text.length() == word.length() || !isNameChar(text.charAt(word.length())));
+    }
+
+    private static boolean hasOrderBy(List<Token> tokens) {
+        for (int i = 1; i < tokens.size(); i++) {
+            if (isKeyword(tokens.get(i - 1), "ORDER") && isKeyword(tokens.get(i), "BY")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c < 128 && Character.isLetterOrDigit(c)) || c == '_';
+    }
+
+    private static Object parseNumber(String digits) {
+        if (digits.length() < 10) {
+            return Integer.parseInt(digits);
+        }
+        if (digits.length() < 19) {
+            return Long.parseLong(digits);
+        }
+        return new BigInteger(digits);
+    }
+}
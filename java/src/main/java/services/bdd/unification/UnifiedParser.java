@@ -0,0 +1,360 @@
+package services.bdd.unification;
+
+import services.bdd.unification.UnifiedLexer.Token;
+import services.bdd.unification.UnifiedLexer.TokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analyseur syntaxique (descente récursive) du dialecte SQLUnification
+ * Grammaire identique à celle de SQLUnification1.py : SELECT, INSERT, UPDATE, DELETE, CREATE, DROP
+ */
+public class UnifiedParser {
+
+    private static final String JSON_PLACEHOLDER = "JSON_PLACEHOLDER_0";
+
+    private final List<Token> tokens;
+    private int pos = 0;
+    private int parameterCount = 0;
+
+    private UnifiedParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Analyse une commande complète
+     */
+    public static Statement parse(String command) {
+        if (command == null || command.trim().isEmpty()) {
+            throw new UnificationException("Erreur d'analyse: impossible de parser la commande");
+        }
+
+        // Les gros blocs JSON sont sortis de la commande avant l'analyse lexicale
+        String jsonBlock = null;
+        String processed = command;
+        int valuesJsonPos = command.indexOf("VALUES_JSON");
+        if (valuesJsonPos != -1) {
+            int startQuote = command.indexOf('\'', valuesJsonPos);
+            int endParen = command.lastIndexOf(')');
+            if (startQuote != -1 && endParen != -1) {
+                int endQuote = command.lastIndexOf('\'', endParen - 1);
+                if (endQuote > startQuote) {
+                    jsonBlock = command.substring(startQuote + 1, endQuote);
+                    processed = command.substring(0, startQuote + 1) + JSON_PLACEHOLDER + command.substring(endQuote);
+                }
+            }
+        }
+
+        UnifiedParser parser = new UnifiedParser(UnifiedLexer.tokenize(processed));
+        Statement statement = parser.parseCommand();
+
+        if (jsonBlock != null && JSON_PLACEHOLDER.equals(statement.jsonData)) {
+            statement.jsonData = jsonBlock;
+        }
+        return statement;
+    }
+
+    private Statement parseCommand() {
+        Token first = peek();
+        if (first == null || first.type != TokenType.KEYWORD) {
+            throw syntaxError();
+        }
+
+        Statement statement = switch (first.text) {
+            case "SELECT" -> parseSelect();
+            case "INSERT" -> parseInsert();
+            case "UPDATE" -> parseUpdate();
+            case "DELETE" -> parseDelete();
+            case "CREATE" -> parseCreate();
+            case "DROP" -> parseDrop();
+            default -> throw syntaxError();
+        };
+
+        if (pos < tokens.size()) {
+            throw syntaxError();
+        }
+        statement.parameterCount = parameterCount;
+        return statement;
+    }
+
+    private Statement parseSelect() {
+        expectKeyword("SELECT");
+        Statement statement = new Statement(Statement.Type.SELECT);
+        statement.distinct = acceptKeyword("DISTINCT");
+        statement.columns = parseColumnList();
+        expectKeyword("FROM");
+        statement.table = expectName();
+        if (acceptKeyword("WHERE")) {
+            statement.where = parseConditionExpr();
+        }
+        if (acceptKeyword("ORDER")) {
+            expectKeyword("BY");
+            do {
+                String field = expectName();
+                boolean descending = acceptKeyword("DESC");
+                if (!descending) {
+                    acceptKeyword("ASC");
+                }
+                statement.orderBy.add(new Statement.OrderBy(field, descending));
+            } while (accept(TokenType.COMMA));
+        }
+        if (acceptKeyword("LIMIT")) {
+            statement.limit = parseCount();
+            if (acceptKeyword("OFFSET")) {
+                statement.offset = parseCount();
+            }
+        } else if (acceptKeyword("OFFSET")) {
+            statement.offset = parseCount();
+        }
+        return statement;
+    }
+
+    private Statement parseInsert() {
+        expectKeyword("INSERT");
+        expectKeyword("INTO");
+        Statement statement = new Statement(Statement.Type.INSERT);
+        statement.table = expectName();
+
+        if (acceptKeyword("VALUES_BASE64")) {
+            expect(TokenType.LPAREN);
+            statement.base64Data = (String) expect(TokenType.STRING).value;
+            expect(TokenType.RPAREN);
+            return statement;
+        }
+
+        if (acceptKeyword("VALUES_JSON")) {
+            expect(TokenType.LPAREN);
+            Token data = next();
+            if (data == null || (data.type != TokenType.STRING && data.type != TokenType.JSON_STRING)) {
+                throw syntaxError();
+            }
+            statement.jsonData = (String) data.value;
+            expect(TokenType.RPAREN);
+            return statement;
+        }
+
+        if (accept(TokenType.LPAREN)) {
+            statement.columns = parseColumnList();
+            expect(TokenType.RPAREN);
+        }
+        expectKeyword("VALUES");
+        expect(TokenType.LPAREN);
+        statement.values = parseValueList();
+        expect(TokenType.RPAREN);
+        return statement;
+    }
+
+    private Statement parseUpdate() {
+        expectKeyword("UPDATE");
+        Statement statement = new Statement(Statement.Type.UPDATE);
+        statement.table = expectName();
+        expectKeyword("SET");
+
+        List<Statement.Assignment> assignments = new ArrayList<>();
+        do {
+            String field = expectName();
+            expect(TokenType.EQ);
+            assignments.add(new Statement.Assignment(field, parseValue()));
+        } while (accept(TokenType.COMMA));
+        statement.assignments = assignments;
+
+        if (acceptKeyword("WHERE")) {
+            statement.where = parseConditionExpr();
+        }
+        return statement;
+    }
+
+    private Statement parseDelete() {
+        expectKeyword("DELETE");
+        expectKeyword("FROM");
+        Statement statement = new Statement(Statement.Type.DELETE);
+        statement.table = expectName();
+        if (acceptKeyword("WHERE")) {
+            statement.where = parseConditionExpr();
+        }
+        return statement;
+    }
+
+    private Statement parseCreate() {
+        expectKeyword("CREATE");
+        Statement statement = new Statement(Statement.Type.CREATE);
+        if (acceptKeyword("DATABASE")) {
+            statement.objectType = "DATABASE";
+            statement.name = expectName();
+            return statement;
+        }
+
+        expectKeyword("TABLE");
+        statement.objectType = "TABLE";
+        statement.name = expectName();
+        expect(TokenType.LPAREN);
+        List<Statement.FieldDef> fields = new ArrayList<>();
+        do {
+            fields.add(new Statement.FieldDef(expectName(), expectName()));
+        } while (accept(TokenType.COMMA));
+        expect(TokenType.RPAREN);
+        statement.fields = fields;
+        return statement;
+    }
+
+    private Statement parseDrop() {
+        expectKeyword("DROP");
+        Statement statement = new Statement(Statement.Type.DROP);
+        if (acceptKeyword("TABLE")) {
+            statement.objectType = "TABLE";
+        } else {
+            expectKeyword("DATABASE");
+            statement.objectType = "DATABASE";
+        }
+        statement.name = expectName();
+        return statement;
+    }
+
+    private List<String> parseColumnList() {
+        List<String> columns = new ArrayList<>();
+        if (accept(TokenType.STAR)) {
+            columns.add("*");
+            return columns;
+        }
+        do {
+            columns.add(expectName());
+        } while (accept(TokenType.COMMA));
+        return columns;
+    }
+
+    private List<Object> parseValueList() {
+        List<Object> values = new ArrayList<>();
+        do {
+            values.add(parseValue());
+        } while (accept(TokenType.COMMA));
+        return values;
+    }
+
+    // OR est moins prioritaire que AND, associativité à gauche
+    private Condition parseConditionExpr() {
+        Condition left = parseAndExpr();
+        while (acceptKeyword("OR")) {
+            left = Condition.logical("OR", left, parseAndExpr());
+        }
+        return left;
+    }
+
+    private Condition parseAndExpr() {
+        Condition left = parseConditionPrimary();
+        while (acceptKeyword("AND")) {
+            left = Condition.logical("AND", left, parseConditionPrimary());
+        }
+        return left;
+    }
+
+    private Condition parseConditionPrimary() {
+        if (accept(TokenType.LPAREN)) {
+            Condition inner = parseConditionExpr();
+            expect(TokenType.RPAREN);
+            return inner;
+        }
+
+        String field = expectName();
+        if (acceptKeyword("IS")) {
+            boolean negated = acceptKeyword("NOT");
+            expectKeyword("NULL");
+            return Condition.nullCheck(field, !negated);
+        }
+
+        Token operator = next();
+        if (operator == null) {
+            throw syntaxError();
+        }
+        switch (operator.type) {
+            case EQ, NEQ, LT, GT, LTE, GTE -> {
+                return Condition.comparison(field, operator.text, parseValue());
+            }
+            default -> throw syntaxError();
+        }
+    }
+
+    // LIMIT / OFFSET : entier littéral ou paramètre
+    private Object parseCount() {
+        Token token = peek();
+        if (token == null || (token.type != TokenType.NUMBER && token.type != TokenType.PARAM)) {
+            throw syntaxError();
+        }
+        return parseValue();
+    }
+
+    private Object parseValue() {
+        Token token = next();
+        if (token == null) {
+            throw syntaxError();
+        }
+        switch (token.type) {
+            case STRING, JSON_STRING, NUMBER -> {
+                return token.value;
+            }
+            case PARAM -> {
+                return new Parameter(parameterCount++);
+            }
+            case KEYWORD -> {
+                switch (token.text) {
+                    case "TRUE" -> { return Boolean.TRUE; }
+                    case "FALSE" -> { return Boolean.FALSE; }
+                    case "NULL" -> { return null; }
+                    default -> throw syntaxError();
+                }
+            }
+            default -> throw syntaxError();
+        }
+    }
+
+    private Token peek() {
+        return pos < tokens.size() ? tokens.get(pos) : null;
+    }
+
+    private Token next() {
+        return pos < tokens.size() ? tokens.get(pos++) : null;
+    }
+
+    private boolean accept(TokenType type) {
+        Token token = peek();
+        if (token != null && token.type == type) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        Token token = peek();
+        if (token != null && token.isKeyword(keyword)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private Token expect(TokenType type) {
+        Token token = peek();
+        if (token == null || token.type != type) {
+            throw syntaxError();
+        }
+        pos++;
+        return token;
+    }
+
+    private void expectKeyword(String keyword) {
+        if (!acceptKeyword(keyword)) {
+            throw syntaxError();
+        }
+    }
+
+    private String expectName() {
+        return expect(TokenType.NAME).text;
+    }
+
+    private UnificationException syntaxError() {
+        Token token = peek();
+        String where = token != null ? "à '" + token.text + "'" : "à la fin de l'entrée";
+        return new UnificationException("Erreur d'analyse: erreur de syntaxe " + where);
+    }
+}
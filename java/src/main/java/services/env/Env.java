@@ -2,5 +2,5 @@ package services.env;
 import io.github.cdimascio.dotenv.Dotenv;
 
 public class Env {
-    public static Dotenv dotenv = Dotenv.load();
+    public static Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
 }
@@ -0,0 +1,218 @@
+package services.security;
+
+import services.env.Env;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vérification des mots de passe bcrypt sur un pool dédié (AUTH_BCRYPT_THREADS, un thread par cœur par défaut)
+ * Contrôle d'admission avant tout calcul bcrypt, par fenêtres glissantes :
+ * - par compte : au plus AUTH_ACCOUNT_MAX_FAILURES échecs sur AUTH_ACCOUNT_WINDOW_SECONDS
+ * - global : au plus AUTH_GLOBAL_MAX_ATTEMPTS vérifications sur AUTH_GLOBAL_WINDOW_SECONDS
+ * Une tentative refusée échoue avec LoginThrottledException, sans occuper le pool
+ */
+public class AuthenticationService {
+
+    private static final int THREADS = Integer.parseInt(Env.dotenv.get("AUTH_BCRYPT_THREADS",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    private static final int QUEUE_SIZE = Integer.parseInt(Env.dotenv.get("AUTH_QUEUE_SIZE", "32"));
+
+    private static final long ACCOUNT_WINDOW_MILLIS = Long.parseLong(Env.dotenv.get("AUTH_ACCOUNT_WINDOW_SECONDS", "300")) * 1000;
+    private static final int ACCOUNT_MAX_FAILURES = Integer.parseInt(Env.dotenv.get("AUTH_ACCOUNT_MAX_FAILURES", "5"));
+    private static final long GLOBAL_WINDOW_MILLIS = Long.parseLong(Env.dotenv.get("AUTH_GLOBAL_WINDOW_SECONDS", "10")) * 1000;
+    private static final int GLOBAL_MAX_ATTEMPTS = Integer.parseInt(Env.dotenv.get("AUTH_GLOBAL_MAX_ATTEMPTS", "50"));
+
+    // Au-delà, les comptes sans échec récent sont oubliés (adresses inventées par un attaquant)
+    private static final int MAX_TRACKED_ACCOUNTS = 10_000;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE), r -> {
+                Thread thread = new Thread(r, "bcrypt-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // Hash de comparaison pour un compte inconnu, calculé une fois au coût BCRYPT_ROUNDS (à la première utilisation)
+    private static class DummyHash {
+        static final String VALUE = Security.hashBcrypt(Security.generateRandomCode(16));
+    }
+
+    private static final Map<String, SlidingWindow> accountFailures = new HashMap<>();
+    private static final SlidingWindow globalAttempts = new SlidingWindow();
+
+    /**
+     * Fenêtre glissante : dates des événements encore dans la fenêtre
+     */
+    private static class SlidingWindow {
+        private final ArrayDeque<Long> times = new ArrayDeque<>();
+
+        int count(long now, long windowMillis) {
+            while (!times.isEmpty() && times.peekFirst() <= now - windowMillis) {
+                times.pollFirst();
+            }
+            return times.size();
+        }
+
+        void add(long now) {
+            times.addLast(now);
+        }
+
+        void remove(long time) {
+            times.removeLastOccurrence(time);
+        }
+
+        // Délai avant que l'événement le plus ancien sorte de la fenêtre
+        Duration retryAfter(long now, long windowMillis) {
+            return Duration.ofMillis(times.isEmpty() ? 0 : Math.max(0, times.peekFirst() + windowMillis - now));
+        }
+    }
+
+    /**
+     * Vérifie le mot de passe sur le pool bcrypt ; un hash absent (compte inconnu) compte comme un échec
+     * et coûte un calcul bcrypt comme les autres, pour que le temps de réponse ne révèle pas l'existence du compte
+     * Le future échoue avec LoginThrottledException si la tentative n'est pas admise
+     */
+    public static CompletableFuture<Boolean> verifyAsync(String account, String password, String hash) {
+        String key = account == null ? "" : account.trim().toLowerCase();
+        long admittedAt;
+        try {
+            admittedAt = admit(key);
+        } catch (LoginThrottledException e) {
+            System.out.println("🚫 Connexion refusée pour " + key + ": " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        try {
+            pool.execute(() -> {
+                boolean valid;
+                if (hash != null) {
+                    valid = Security.checkBcrypt(password, hash);
+                } else {
+                    Security.checkBcrypt(password, DummyHash.VALUE);
+                    valid = false;
+                }
+                record(key, valid);
+                future.complete(valid);
+            });
+        } catch (RejectedExecutionException e) {
+            // Aucune vérification n'a eu lieu : la place prise dans la fenêtre globale est rendue
+            synchronized (accountFailures) {
+                globalAttempts.remove(admittedAt);
+            }
+            future.completeExceptionally(new LoginThrottledException(
+                    "Trop de connexions en cours (" + QUEUE_SIZE + " en attente), réessayez dans quelques secondes",
+                    Duration.ofSeconds(1)));
+        }
+        return future;
+    }
+
+    /**
+     * Version bloquante de verifyAsync (false si la tentative n'est pas admise)
+     */
+    public static boolean verify(String account, String password, String hash) {
+        try {
+            return verifyAsync(account, password, hash).join();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Mesure hashBcrypt sur cette machine et retourne le coût le plus élevé qui reste sous la latence visée
+     * Chaque coût supplémentaire double le temps de calcul : un seul coût est mesuré puis extrapolé, et le résultat vérifié
+     */
+    public static int calibrate(long targetMillis) {
+        String password = Security.generateRandomCode(16);
+        // Chauffe du JIT sur un coût faible
+        for (int i = 0; i < 5; i++) {
+            Security.hashBcrypt(password, 4);
+        }
+
+        int reference = 8;
+        long referenceMillis = Math.max(1, measure(password, reference));
+        int rounds = reference;
+        while (rounds < 31 && (referenceMillis << (rounds + 1 - reference)) <= targetMillis) {
+            rounds++;
+        }
+        // L'extrapolation peut être optimiste (fréquence du processeur, autres charges) : on redescend si besoin
+        while (rounds > 4 && measure(password, rounds) > targetMillis) {
+            rounds--;
+        }
+        System.out.println("🔐 Calibrage bcrypt: coût " + rounds + " pour " + targetMillis + " ms visés (coût "
+                + reference + ": " + referenceMillis + " ms)");
+        return rounds;
+    }
+
+    /**
+     * Durée d'un hashBcrypt au coût donné, en millisecondes (meilleure de trois mesures)
+     */
+    public static long measure(String password, int rounds) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long debut = System.nanoTime();
+            Security.hashBcrypt(password, rounds);
+            best = Math.min(best, (System.nanoTime() - debut) / 1_000_000);
+        }
+        return best;
+    }
+
+    public static String getStats() {
+        synchronized (accountFailures) {
+            long now = System.currentTimeMillis();
+            return "Pool bcrypt: " + pool.getActiveCount() + "/" + THREADS + " actifs, " + pool.getQueue().size()
+                    + " en attente, " + globalAttempts.count(now, GLOBAL_WINDOW_MILLIS) + " vérification(s) sur la fenêtre, "
+                    + accountFailures.size() + " compte(s) suivis";
+        }
+    }
+
+    // Retourne la date enregistrée dans la fenêtre globale
+    private static long admit(String account) {
+        long now = System.currentTimeMillis();
+        synchronized (accountFailures) {
+            SlidingWindow failures = accountFailures.get(account);
+            if (failures != null && failures.count(now, ACCOUNT_WINDOW_MILLIS) >= ACCOUNT_MAX_FAILURES) {
+                Duration retryAfter = failures.retryAfter(now, ACCOUNT_WINDOW_MILLIS);
+                throw new LoginThrottledException("Trop de tentatives échouées pour ce compte, réessayez dans "
+                        + Math.max(1, retryAfter.toSeconds()) + " s", retryAfter);
+            }
+            if (globalAttempts.count(now, GLOBAL_WINDOW_MILLIS) >= GLOBAL_MAX_ATTEMPTS) {
+                Duration retryAfter = globalAttempts.retryAfter(now, GLOBAL_WINDOW_MILLIS);
+                throw new LoginThrottledException("Trop de connexions simultanées, réessayez dans "
+                        + Math.max(1, retryAfter.toSeconds()) + " s", retryAfter);
+            }
+            globalAttempts.add(now);
+        }
+        return now;
+    }
+
+    private static void record(String account, boolean valid) {
+        long now = System.currentTimeMillis();
+        synchronized (accountFailures) {
+            if (valid) {
+                accountFailures.remove(account);
+                return;
+            }
+            if (accountFailures.size() >= MAX_TRACKED_ACCOUNTS) {
+                Iterator<SlidingWindow> windows = accountFailures.values().iterator();
+                while (windows.hasNext()) {
+                    if (windows.next().count(now, ACCOUNT_WINDOW_MILLIS) == 0) {
+                        windows.remove();
+                    }
+                }
+            }
+            accountFailures.computeIfAbsent(account, a -> new SlidingWindow()).add(now);
+        }
+    }
+}
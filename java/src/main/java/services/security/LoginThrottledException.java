@@ -0,0 +1,23 @@
+package services.security;
+
+import java.time.Duration;
+
+/**
+ * Tentative de connexion refusée avant la vérification bcrypt (trop d'échecs sur le compte ou trop de connexions en cours)
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Délai avant qu'une nouvelle tentative soit acceptée
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -12,11 +12,13 @@ import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.regex.Pattern;
 
 public class Security {
 
     private static String defaultKey;
     private static final String algo = "AES";
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2a\\$\\d{2}\\$.{53}$");
 
     public static String encrypt(String value, String key) {
         try {
@@ -96,7 +98,8 @@ public class Security {
         return code.toString();
     }
 
-    public static String hashBcrypt(String password) {return BCrypt.hashpw(password, BCrypt.gensalt());}
+    // Coût BCRYPT_ROUNDS, à choisir selon la machine avec AuthenticationService.calibrate
+    public static String hashBcrypt(String password) {return hashBcrypt(password, Integer.parseInt(Env.dotenv.get("BCRYPT_ROUNDS", "10")));}
 
     public static String hashBcrypt(String password, int rounds) {return BCrypt.hashpw(password, BCrypt.gensalt(rounds));}
 
@@ -111,12 +114,12 @@ public class Security {
 
             // Conversion $2b$ vers $2a$ pour compatibilité avec jBCrypt 0.4
             if (hash.startsWith("$2b$")) {
-                hash = hash.replaceFirst("\\$2b\\$", "\\$2a\\$");
+                hash = "$2a$" + hash.substring(4);
                 System.out.println("hash converti de $2b$ vers $2a$ pour compatibilite");
             }
 
             // Vérification du format BCrypt
-            if (!hash.matches("^\\$2a\\$\\d{2}\\$.{53}$")) {
+            if (!BCRYPT_HASH.matcher(hash).matches()) {
                 System.out.println("format de hash invalide: " + hash.substring(0, Math.min(10, hash.length())));
                 return false;
             }
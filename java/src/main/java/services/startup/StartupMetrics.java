@@ -0,0 +1,81 @@
+package services.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import services.env.Env;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Jalons du démarrage, en millisecondes depuis le lancement de la JVM
+ * Chaque jalon n'est enregistré qu'une fois ; le bilan d'un lancement est ajouté à STARTUP_METRICS_PATH (une ligne JSON)
+ */
+public class StartupMetrics {
+
+    public static final String MAIN = "main";
+    public static final String FIRST_FRAME = "premiere_image";
+    public static final String FIRST_QUERY = "premiere_requete";
+    public static final String DATABASE_READY = "bdd_prete";
+    public static final String AI_READY = "ia_prete";
+    public static final String PLUGINS_READY = "plugins_prets";
+    public static final String READY = "pret";
+
+    // Seule l'origine est initialisée avec la classe : un jalon ne doit pas payer le chargement de Jackson ou du .env
+    private static final long ORIGIN = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private static final Map<String, Long> milestones = new LinkedHashMap<>();
+
+    /**
+     * Enregistre le jalon s'il n'a pas encore été atteint
+     */
+    public static synchronized void mark(String milestone) {
+        milestones.putIfAbsent(milestone, System.currentTimeMillis() - ORIGIN);
+    }
+
+    /**
+     * Millisecondes depuis le lancement de la JVM, null si le jalon n'est pas atteint
+     */
+    public static synchronized Long get(String milestone) {
+        return milestones.get(milestone);
+    }
+
+    public static synchronized String getReport() {
+        StringBuilder report = new StringBuilder("⏱️ Démarrage:");
+        milestones.forEach((milestone, millis) -> report.append(' ').append(milestone).append('=').append(millis).append("ms"));
+        return report.toString();
+    }
+
+    /**
+     * Ajoute les jalons de ce lancement au fichier de suivi (désactivé si STARTUP_METRICS_PATH est vide)
+     */
+    public static synchronized void save() {
+        Path path = getMetricsPath();
+        if (path.toString().isEmpty()) {
+            return;
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("date", Instant.ofEpochMilli(ORIGIN).toString());
+        milestones.forEach(line::put);
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(path, objectMapper.writeValueAsString(line) + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.out.println("⚠️ Écriture des mesures de démarrage impossible: " + e.getMessage());
+        }
+    }
+
+    public static Path getMetricsPath() {
+        return Path.of(Env.dotenv.get("STARTUP_METRICS_PATH",
+                Path.of(System.getProperty("user.home"), ".monvoisin3000", "startup-metrics.jsonl").toString()));
+    }
+}
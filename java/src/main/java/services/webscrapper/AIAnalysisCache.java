@@ -0,0 +1,184 @@
+package services.webscrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import services.env.Env;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache des analyses IA, indexé par l'empreinte du titre et de la source normalisés
+ * Niveau mémoire LRU (AI_CACHE_MAX_ENTRIES) et niveau disque (AI_CACHE_DIR), expirés après AI_CACHE_TTL_HOURS
+ * Un même titre vu dans plusieurs villes ou plusieurs collectes n'est analysé qu'une fois
+ */
+public class AIAnalysisCache {
+
+    private static final int MAX_ENTRIES = Integer.parseInt(Env.dotenv.get("AI_CACHE_MAX_ENTRIES", "5000"));
+    private static final long TTL_MS = TimeUnit.HOURS.toMillis(Long.parseLong(Env.dotenv.get("AI_CACHE_TTL_HOURS", "168")));
+    private static final String DISK_DIR = Env.dotenv.get("AI_CACHE_DIR",
+            Path.of(System.getProperty("user.home"), ".monvoisin3000", "ai-cache").toString());
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final Map<String, Stored> memory = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private static final Path diskDir = initDiskDir();
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Forme sérialisée d'une analyse
+     */
+    public static class Stored {
+        public List<String> tags;
+        public int sentiment;
+        public long storedAt;
+
+        boolean isExpired(long now) {
+            return now - storedAt > TTL_MS;
+        }
+    }
+
+    /**
+     * Analyse connue et non expirée, null sinon
+     */
+    public static AIAnalysisResult get(String titre, String source) {
+        String key = key(titre, source);
+        long now = System.currentTimeMillis();
+        Stored stored;
+        synchronized (memory) {
+            stored = memory.get(key);
+        }
+        if (stored == null) {
+            stored = readDisk(key);
+            if (stored != null && !stored.isExpired(now)) {
+                synchronized (memory) {
+                    memory.put(key, stored);
+                }
+            }
+        }
+        if (stored == null || stored.isExpired(now)) {
+            if (stored != null) {
+                remove(key);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new AIAnalysisResult(stored.tags, stored.sentiment);
+    }
+
+    public static void put(String titre, String source, AIAnalysisResult result) {
+        String key = key(titre, source);
+        Stored stored = new Stored();
+        stored.tags = List.copyOf(result.tags);
+        stored.sentiment = result.sentiment;
+        stored.storedAt = System.currentTimeMillis();
+        synchronized (memory) {
+            memory.put(key, stored);
+        }
+        writeDisk(key, stored);
+    }
+
+    public static String getStats() {
+        synchronized (memory) {
+            return String.format("Cache IA: %d entrée(s) en mémoire, %d hit(s), %d miss", memory.size(), hits.get(), misses.get());
+        }
+    }
+
+    // Casse, accents composés et espaces n'influent pas sur la clé
+    static String key(String titre, String source) {
+        String normalized = normalize(titre) + "\u0000" + normalize(source);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private static Path initDiskDir() {
+        if (DISK_DIR.isBlank()) {
+            return null;
+        }
+        try {
+            return Files.createDirectories(Path.of(DISK_DIR));
+        } catch (IOException e) {
+            System.out.println("⚠️ Cache IA sur disque désactivé (" + DISK_DIR + "): " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Fichiers répartis par les deux premiers caractères de l'empreinte pour éviter un répertoire géant
+    private static Path diskPath(String key) {
+        return diskDir.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private static Stored readDisk(String key) {
+        if (diskDir == null) {
+            return null;
+        }
+        Path path = diskPath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(path.toFile(), Stored.class);
+        } catch (IOException e) {
+            System.out.println("⚠️ Entrée du cache IA illisible " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeDisk(String key, Stored stored) {
+        if (diskDir == null) {
+            return;
+        }
+        Path path = diskPath(key);
+        try {
+            Files.createDirectories(path.getParent());
+            Path tmp = Files.createTempFile(path.getParent(), key, ".tmp");
+            objectMapper.writeValue(tmp.toFile(), stored);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("⚠️ Écriture du cache IA impossible: " + e.getMessage());
+        }
+    }
+
+    private static void remove(String key) {
+        synchronized (memory) {
+            memory.remove(key);
+        }
+        if (diskDir != null) {
+            try {
+                Files.deleteIfExists(diskPath(key));
+            } catch (IOException ignored) {
+                // Entrée déjà supprimée
+            }
+        }
+    }
+}
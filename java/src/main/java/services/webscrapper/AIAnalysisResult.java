@@ -0,0 +1,18 @@
+package services.webscrapper;
+
+import java.util.List;
+
+/**
+ * Tags et sentiment calculés par l'IA pour un article
+ */
+public class AIAnalysisResult {
+
+    public final List<String> tags;
+    // -1: négatif, 0: neutre, 1: positif
+    public final int sentiment;
+
+    public AIAnalysisResult(List<String> tags, int sentiment) {
+        this.tags = tags;
+        this.sentiment = sentiment;
+    }
+}
@@ -0,0 +1,307 @@
+package services.webscrapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import model.Article;
+import services.ai.AIClient;
+import services.env.Env;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Enrichissement des articles par l'IA : tags et sentiment
+ * Les articles sont envoyés par lots de NEWS_AI_BATCH_SIZE titres dans un seul prompt à réponse JSON ;
+ * seuls les articles absents ou illisibles dans la réponse sont réanalysés un par un
+ * Les analyses réussies sont conservées dans AIAnalysisCache, et ajoutées à NEWS_AI_CORPUS_PATH s'il est défini
+ * (corpus de référence pour test.LocalClassifierBenchmark)
+ * Pendant l'enregistrement du corpus, tous les titres vont à l'IA, y compris ceux que LocalClassifier classerait seul :
+ * le corpus couvre ainsi toutes les confiances, et chaque ligne garde aussi le classement local
+ */
+public class ArticleEnricher {
+
+    private static final int BATCH_SIZE = Integer.parseInt(Env.dotenv.get("NEWS_AI_BATCH_SIZE", "10"));
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final AIAnalysisResult DEFAULT_RESULT = new AIAnalysisResult(Collections.singletonList("actu"), 0);
+    // Tags posés par parseAIResponse quand la réponse ne contient aucun tag lisible
+    private static final List<String> UNPARSED_TAGS = List.of("actualité");
+    private static final String CORPUS_PATH = Env.dotenv.get("NEWS_AI_CORPUS_PATH", "");
+    private static final boolean RECORDING = !CORPUS_PATH.isBlank();
+
+    // Un appel IA au plus toutes les NEWS_AI_INTERVAL_MS, quel que soit le nombre de threads
+    private static final RateLimiter AI_RATE_LIMITER = new RateLimiter(
+            Duration.ofMillis(Long.parseLong(Env.dotenv.get("NEWS_AI_INTERVAL_MS", "1000"))));
+
+    public static int getBatchSize() {
+        return BATCH_SIZE;
+    }
+
+    /**
+     * Enrichit les articles par lots ; le résultat garde l'ordre des articles
+     * Les articles déjà analysés (AIAnalysisCache) ou classés avec assez de confiance par LocalClassifier
+     * ne sont pas envoyés à l'IA (sauf pendant l'enregistrement du corpus)
+     */
+    public static List<Article> enrichBatch(List<Article> articles) throws InterruptedException {
+        Article[] enriched = new Article[articles.size()];
+        List<Integer> aAnalyser = new ArrayList<>();
+        int locaux = 0;
+        for (int i = 0; i < articles.size(); i++) {
+            Article article = articles.get(i);
+            AIAnalysisResult cached = AIAnalysisCache.get(article.getTitre(), article.getSource());
+            if (cached != null) {
+                enriched[i] = withAnalysis(article, cached);
+                continue;
+            }
+            LocalClassifier.Classification local = LocalClassifier.classify(article.getTitre());
+            if (!RECORDING && local.isConfident()) {
+                enriched[i] = withAnalysis(article, local.result());
+                locaux++;
+            } else {
+                aAnalyser.add(i);
+            }
+        }
+
+        for (int start = 0; start < aAnalyser.size(); start += BATCH_SIZE) {
+            List<Integer> indexes = aAnalyser.subList(start, Math.min(aAnalyser.size(), start + BATCH_SIZE));
+            List<Article> lot = indexes.stream().map(articles::get).toList();
+            AIAnalysisResult[] results = lot.size() > 1 ? analyzeBatch(lot) : new AIAnalysisResult[1];
+            if (results == null) {
+                // L'IA ne répond pas : inutile de la rappeler pour chaque article
+                for (int i = 0; i < lot.size(); i++) {
+                    enriched[indexes.get(i)] = withAnalysis(lot.get(i), DEFAULT_RESULT);
+                }
+                continue;
+            }
+
+            int repli = 0;
+            for (int i = 0; i < lot.size(); i++) {
+                Article article = lot.get(i);
+                if (results[i] != null) {
+                    remember(article, results[i]);
+                    enriched[indexes.get(i)] = withAnalysis(article, results[i]);
+                } else {
+                    enriched[indexes.get(i)] = analyze(article);
+                    repli++;
+                }
+            }
+            if (lot.size() > 1) {
+                System.out.println("🤖 Lot IA de " + lot.size() + " article(s), " + repli + " réanalysé(s) individuellement");
+            }
+        }
+        if (aAnalyser.size() < articles.size()) {
+            System.out.println("🤖 " + (articles.size() - aAnalyser.size() - locaux) + " analyse(s) IA reprise(s) du cache, "
+                    + locaux + " classé(s) localement");
+        }
+        return Arrays.asList(enriched);
+    }
+
+    /**
+     * Analyse d'un seul article (format TAGS:/SENTIMENT:), avec tags par défaut si l'IA échoue
+     */
+    public static Article enrich(Article article) throws InterruptedException {
+        AIAnalysisResult cached = AIAnalysisCache.get(article.getTitre(), article.getSource());
+        if (cached != null) {
+            return withAnalysis(article, cached);
+        }
+        LocalClassifier.Classification local = LocalClassifier.classify(article.getTitre());
+        return !RECORDING && local.isConfident() ? withAnalysis(article, local.result()) : analyze(article);
+    }
+
+    // Appel IA sans consulter le cache ; seule une réponse exploitable y est enregistrée
+    private static Article analyze(Article article) throws InterruptedException {
+        AI_RATE_LIMITER.acquire();
+        try {
+            AIAnalysisResult result = analyzeWithAI(article.getTitre(), article.getSource());
+            if (!result.tags.equals(UNPARSED_TAGS)) {
+                remember(article, result);
+            }
+            return withAnalysis(article, result);
+        } catch (Exception e) {
+            System.out.println("erreur ia pour l'article '" + article.getTitre() + "': " + e.getMessage());
+            // Fallback: tags et sentiment par défaut
+            return withAnalysis(article, DEFAULT_RESULT);
+        }
+    }
+
+    private static void remember(Article article, AIAnalysisResult result) {
+        AIAnalysisCache.put(article.getTitre(), article.getSource(), result);
+        if (!RECORDING) {
+            return;
+        }
+        LocalClassifier.Classification local = LocalClassifier.classify(article.getTitre());
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("titre", article.getTitre());
+        line.put("source", article.getSource());
+        line.putPOJO("tags", result.tags);
+        line.put("sentiment", result.sentiment);
+        // Classement local au moment de l'enregistrement, pour comparer avec l'IA sans rejouer le lexique
+        line.putPOJO("tagsLocaux", local.result().tags);
+        line.put("sentimentLocal", local.result().sentiment);
+        line.put("confianceLocale", local.confidence());
+        synchronized (ArticleEnricher.class) {
+            try {
+                Files.writeString(Path.of(CORPUS_PATH), line + "\n", StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.out.println("⚠️ Écriture du corpus IA impossible: " + e.getMessage());
+            }
+        }
+    }
+
+    private static Article withAnalysis(Article article, AIAnalysisResult result) {
+        return new Article(article.getTitre(), article.getDescription(), article.getUrl(), article.getSource(),
+                article.getDatePublication(), article.getImageUrl(), result.tags, result.sentiment);
+    }
+
+    // Un seul appel pour tout le lot ; une case null signifie "à réanalyser seul", null si l'appel a échoué
+    private static AIAnalysisResult[] analyzeBatch(List<Article> lot) throws InterruptedException {
+        StringBuilder titres = new StringBuilder();
+        for (int i = 0; i < lot.size(); i++) {
+            Article article = lot.get(i);
+            titres.append(i).append(". \"").append(article.getTitre().replace("\"", "'")).append("\" (source: ")
+                    .append(article.getSource() != null ? article.getSource() : "inconnue").append(")\n");
+        }
+        String prompt = "Analyse ces titres d articles de presse:\n" + titres + "\n" +
+                "Réponds UNIQUEMENT avec un tableau JSON, un objet par titre, dans ce format:\n" +
+                "[{\"index\": 0, \"tags\": [\"tag1\", \"tag2\", \"tag3\"], \"sentiment\": 0}]\n\n" +
+                "index: numéro du titre ci-dessus\n" +
+                "tags: 3-5 mots-clés pertinents en français (politique, économie, technologie, sport, santé, etc.)\n" +
+                "sentiment: -1 pour un sentiment négatif, 0 pour neutre ou 1 pour un sentiment positif";
+
+        AI_RATE_LIMITER.acquire();
+        try {
+            return parseBatchResponse(AIClient.shared().complete(prompt), lot.size());
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            System.out.println("erreur ia pour le lot de " + lot.size() + " article(s): " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Associe chaque objet du tableau JSON à son article par "index"
+     * Le tableau est cherché dans la réponse (l'IA l'entoure parfois de texte ou de balises markdown)
+     */
+    static AIAnalysisResult[] parseBatchResponse(String response, int size) {
+        AIAnalysisResult[] results = new AIAnalysisResult[size];
+        int start = response != null ? response.indexOf('[') : -1;
+        int end = response != null ? response.lastIndexOf(']') : -1;
+        if (start < 0 || end <= start) {
+            return results;
+        }
+        JsonNode array;
+        try {
+            array = objectMapper.readTree(response.substring(start, end + 1));
+        } catch (Exception e) {
+            System.out.println("erreur lors du parsing de la reponse ia: " + e.getMessage());
+            return results;
+        }
+        if (!array.isArray()) {
+            return results;
+        }
+        for (JsonNode item : array) {
+            JsonNode index = item.get("index");
+            JsonNode tagsNode = item.get("tags");
+            JsonNode sentimentNode = item.get("sentiment");
+            if (index == null || !index.canConvertToInt() || index.asInt() < 0 || index.asInt() >= size
+                    || tagsNode == null || !tagsNode.isArray() || sentimentNode == null || !sentimentNode.isNumber()) {
+                continue;
+            }
+            List<String> tags = new ArrayList<>();
+            for (JsonNode tag : tagsNode) {
+                String cleanTag = tag.asText().trim();
+                if (!cleanTag.isEmpty() && cleanTag.length() <= 20) {
+                    tags.add(cleanTag);
+                }
+            }
+            if (tags.isEmpty()) {
+                continue;
+            }
+            int sentiment = sentimentNode.asInt();
+            results[index.asInt()] = new AIAnalysisResult(tags, sentiment < -1 || sentiment > 1 ? 0 : sentiment);
+        }
+        return results;
+    }
+
+    private static AIAnalysisResult analyzeWithAI(String titre, String source) {
+        String prompt = String.format(
+                "Analyse ce titre d article de presse: \"%s\" (source: %s)\n\n" +
+                        "Réponds EXACTEMENT dans ce format:\n" +
+                        "TAGS: tag1,tag2,tag3\n" +
+                        "SENTIMENT: -1|0|1\n\n" +
+                        "Pour les TAGS: 3-5 mots-clés pertinents en français, séparés par des virgules (politique, économie, technologie, sport, santé, etc.)\n" +
+                        "Pour le SENTIMENT: int entre 1 et -1,  -1 pour un sentiment négatif, 0 pour neutre ou 1 pour un sentiment positif",
+                titre, source != null ? source : "inconnue"
+        );
+
+
+        try {
+            String aiResponse = AIClient.shared().complete(prompt);
+            //System.out.println(aiResponse);
+            return parseAIResponse(aiResponse);
+        } catch (Exception e) {
+            throw new RuntimeException("erreur lors de l'appel à l'IA: " + e.getMessage());
+        }
+    }
+
+    private static AIAnalysisResult parseAIResponse(String response) {
+        List<String> tags = new ArrayList<>();
+        int sentiment = 0;
+
+        try {
+            String[] lines = response.split("\n");
+
+            for (String line : lines) {
+                line = line.trim();
+
+                if (line.toUpperCase().startsWith("TAGS:")) {
+                    String tagsStr = line.substring(5).trim();
+                    if (!tagsStr.isEmpty()) {
+                        String[] tagArray = tagsStr.split(",");
+                        for (String tag : tagArray) {
+                            String cleanTag = tag.trim();
+                            if (!cleanTag.isEmpty() && cleanTag.length() <= 20) {
+                                tags.add(cleanTag);
+                            }
+                        }
+                    }
+                }
+
+                if (line.toUpperCase().startsWith("SENTIMENT:")) {
+                    String sentimentStr = line.substring(10).trim();
+                    try {
+                        sentiment = Integer.parseInt(sentimentStr);
+                        // Validation des valeurs
+                        if (sentiment < -1 || sentiment > 1) {
+                            sentiment = 0;
+                        }
+                    } catch (NumberFormatException e) {
+                        sentiment = 0;
+                    }
+                }
+            }
+
+            // Si aucun tag n'a été extrait, ajouter un tag par défaut
+            if (tags.isEmpty()) {
+                tags.add("actualité");
+            }
+
+        } catch (Exception e) {
+            System.out.println("erreur lors du parsing de la reponse ia: " + e.getMessage());
+            tags.add("actualité");
+            sentiment = 0;
+        }
+
+        return new AIAnalysisResult(tags, sentiment);
+    }
+}
@@ -0,0 +1,86 @@
+package services.webscrapper;
+
+import model.Article;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Empreinte d'un article : id stable tiré de l'URL canonique (du titre à défaut) et hash du contenu
+ * Même id et hash différent = article déjà connu dont le titre, la description ou l'image ont changé
+ * La date n'entre pas dans le hash : l'extraction la remplace par l'heure courante quand la page n'en donne pas
+ */
+public record ArticleFingerprint(String id, String contentHash) {
+
+    // Paramètres de suivi qui varient d'un affichage à l'autre sans changer l'article
+    private static final Set<String> TRACKING_PARAMS = Set.of("fbclid", "gclid", "oc", "ved", "usg", "xtor");
+
+    public static ArticleFingerprint of(Article article) {
+        String url = canonicalUrl(article.getUrl());
+        String titre = normalize(article.getTitre());
+        String id = sha256(url.isEmpty() ? "titre:" + titre : url);
+        String contentHash = sha256(titre + "\u0000" + normalize(article.getDescription()) + "\u0000"
+                + normalize(article.getSource()) + "\u0000" + (article.getImageUrl() != null ? article.getImageUrl() : ""));
+        return new ArticleFingerprint(id, contentHash);
+    }
+
+    /**
+     * URL sans fragment ni paramètres de suivi, schéma et hôte en minuscules, paramètres triés
+     */
+    public static String canonicalUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return "";
+        }
+        URI uri;
+        try {
+            uri = new URI(url.trim());
+        } catch (URISyntaxException e) {
+            return url.trim();
+        }
+        if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return url.trim();
+        }
+
+        List<String> params = new ArrayList<>();
+        if (uri.getRawQuery() != null) {
+            for (String param : uri.getRawQuery().split("&")) {
+                String name = param.split("=", 2)[0].toLowerCase(Locale.ROOT);
+                if (!param.isEmpty() && !name.startsWith("utm_") && !TRACKING_PARAMS.contains(name)) {
+                    params.add(param);
+                }
+            }
+            params.sort(null);
+        }
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return uri.getScheme().toLowerCase(Locale.ROOT) + "://" + uri.getRawAuthority().toLowerCase(Locale.ROOT) + path
+                + (params.isEmpty() ? "" : "?" + String.join("&", params));
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package services.webscrapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.Article;
+import services.bdd.BddNew;
+import services.env.Env;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index local des articles déjà sauvegardés dans news_collection : ville -> empreinte -> hash du contenu
+ * Permet de n'enrichir et de ne sauvegarder que les articles nouveaux ou modifiés
+ * Conservé dans NEWS_INDEX_PATH ; reconstruit depuis news_collection si le fichier est absent
+ */
+public class ArticleIndex {
+
+    private static final Path INDEX_PATH = Path.of(Env.dotenv.get("NEWS_INDEX_PATH",
+            Path.of(System.getProperty("user.home"), ".monvoisin3000", "news-index.json").toString()));
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Map<String, Map<String, String>> index;
+
+    public enum State { NEW, CHANGED, UNCHANGED }
+
+    /**
+     * Charge l'index (fichier, ou reconstruction depuis news_collection) avant la collecte
+     * À appeler hors des threads virtuels : la reconstruction lit toute la collection sous le verrou de la classe
+     */
+    public static synchronized void preload() {
+        loaded();
+    }
+
+    /**
+     * État de l'article par rapport à ce qui est déjà sauvegardé pour la ville
+     */
+    public static synchronized State check(String ville, ArticleFingerprint fingerprint) {
+        String stored = loaded().getOrDefault(ville.toLowerCase(), Map.of()).get(fingerprint.id());
+        if (stored == null) {
+            return State.NEW;
+        }
+        return stored.equals(fingerprint.contentHash()) ? State.UNCHANGED : State.CHANGED;
+    }
+
+    /**
+     * Enregistre les articles une fois leur sauvegarde confirmée
+     */
+    public static synchronized void record(String ville, List<Article> articles) {
+        Map<String, String> entries = loaded().computeIfAbsent(ville.toLowerCase(), v -> new HashMap<>());
+        for (Article article : articles) {
+            ArticleFingerprint fingerprint = ArticleFingerprint.of(article);
+            entries.put(fingerprint.id(), fingerprint.contentHash());
+            SeenUrlFilter.put(ville, fingerprint);
+        }
+    }
+
+    /**
+     * Écrit l'index sur disque (fichier temporaire puis renommage)
+     */
+    public static synchronized void save() {
+        if (index == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(INDEX_PATH.toAbsolutePath().getParent());
+            Path tmp = Files.createTempFile(INDEX_PATH.toAbsolutePath().getParent(), "news-index", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), index);
+            Files.move(tmp, INDEX_PATH, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("⚠️ Écriture de l'index des articles impossible: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruit l'index à partir des documents article de news_collection
+     */
+    public static synchronized int rebuildFromDatabase() {
+        Map<String, Map<String, String>> rebuilt = new HashMap<>();
+        int[] count = {0};
+        String erreur;
+        try {
+            erreur = BddNew.requestStream("mongo", "SELECT ville, fingerprint, contentHash FROM news_collection",
+                    row -> {
+                        JsonNode ville = row.get("ville");
+                        JsonNode fingerprint = row.get("fingerprint");
+                        JsonNode contentHash = row.get("contentHash");
+                        // Les anciens documents {"news":{...}} n'ont pas d'empreinte
+                        if (ville != null && fingerprint != null && contentHash != null && !fingerprint.isNull()) {
+                            rebuilt.computeIfAbsent(ville.asText(), v -> new HashMap<>())
+                                    .put(fingerprint.asText(), contentHash.asText());
+                            count[0]++;
+                        }
+                    });
+        } catch (RuntimeException e) {
+            erreur = e.getMessage();
+        }
+        if (erreur != null) {
+            System.out.println("⚠️ Reconstruction de l'index des articles impossible: " + erreur);
+        }
+        index = rebuilt;
+        System.out.println("🗂️ Index des articles reconstruit: " + count[0] + " article(s)");
+        return count[0];
+    }
+
+    private static Map<String, Map<String, String>> loaded() {
+        if (index == null) {
+            load();
+        }
+        return index;
+    }
+
+    private static void load() {
+        if (Files.exists(INDEX_PATH)) {
+            try {
+                index = objectMapper.readValue(INDEX_PATH.toFile(), new TypeReference<HashMap<String, Map<String, String>>>() {});
+                return;
+            } catch (IOException e) {
+                System.out.println("⚠️ Index des articles illisible, reconstruction: " + e.getMessage());
+            }
+        }
+        rebuildFromDatabase();
+    }
+}
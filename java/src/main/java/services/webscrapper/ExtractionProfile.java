@@ -0,0 +1,346 @@
+package services.webscrapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.Article;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import services.env.Env;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Règles d'extraction des articles d'une source, compilées une fois pour toutes
+ * Les sélecteurs CSS sont analysés en Evaluator jsoup et les expressions de nettoyage en Pattern au chargement,
+ * puis chaque article est parcouru une seule fois pour tous les champs
+ * Les profils viennent de /scraping/extraction-profiles.json, ou de NEWS_PROFILE_PATH qui est rechargé à chaud quand il change
+ */
+public class ExtractionProfile {
+
+    private static final String BUNDLED_PROFILES = "/scraping/extraction-profiles.json";
+    private static final String PROFILE_PATH = Env.dotenv.get("NEWS_PROFILE_PATH", "");
+    private static final long CHECK_INTERVAL_MS = Long.parseLong(Env.dotenv.get("NEWS_PROFILE_CHECK_SECONDS", "5")) * 1000;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final Evaluator ANY_LINK = QueryParser.parse("a");
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static volatile Map<String, ExtractionProfile> profiles;
+    private static volatile long nextCheck = 0;
+    private static long loadedModified = -1;
+
+    /**
+     * Règles telles qu'écrites dans le fichier de configuration
+     */
+    public static class Rules {
+        public String baseUrl = "";
+        public List<String> articles = List.of("article");
+        public List<String> title = List.of();
+        public int titleMinLength = 5;
+        public List<String> titleCleanup = List.of();
+        public List<String> source = List.of();
+        public List<String> sourceFallback = List.of();
+        public List<String> sourceIgnore = List.of();
+        public String date;
+        public String image;
+        public String link = "a[href]";
+        public int maxLinks = 3;
+        public List<String> rejectTitles = List.of();
+    }
+
+    private final String name;
+    private final String baseUrl;
+    private final List<Evaluator> articles;
+    private final Evaluator articleQuery;
+    private final List<Evaluator> titles;
+    private final int titleMinLength;
+    private final List<Pattern> titleCleanup;
+    private final List<Evaluator> sources;
+    private final List<Evaluator> sourceFallbacks;
+    private final List<String> sourceIgnore;
+    private final Evaluator date;
+    private final Evaluator image;
+    private final Evaluator link;
+    private final int maxLinks;
+    private final List<String> rejectTitles;
+
+    private ExtractionProfile(String name, Rules rules) {
+        this.name = name;
+        this.baseUrl = rules.baseUrl;
+        this.articles = compile(rules.articles);
+        this.articleQuery = QueryParser.parse(String.join(", ", rules.articles));
+        this.titles = compile(rules.title);
+        this.titleMinLength = rules.titleMinLength;
+        this.titleCleanup = new ArrayList<>();
+        for (String regex : rules.titleCleanup) {
+            titleCleanup.add(Pattern.compile(regex));
+        }
+        this.sources = compile(rules.source);
+        this.sourceFallbacks = compile(rules.sourceFallback);
+        this.sourceIgnore = rules.sourceIgnore;
+        this.date = rules.date != null ? QueryParser.parse(rules.date) : null;
+        this.image = rules.image != null ? QueryParser.parse(rules.image) : null;
+        this.link = QueryParser.parse(rules.link);
+        this.maxLinks = rules.maxLinks;
+        this.rejectTitles = rules.rejectTitles.stream().map(String::toLowerCase).toList();
+    }
+
+    /**
+     * Profil courant de la source ; le fichier externe est relu s'il a changé depuis le dernier chargement
+     */
+    public static ExtractionProfile get(String name) {
+        if (profiles == null || System.currentTimeMillis() >= nextCheck) {
+            reloadIfChanged();
+        }
+        ExtractionProfile profile = profiles.get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("Profil d'extraction inconnu: " + name);
+        }
+        return profile;
+    }
+
+    // Un fichier invalide est signalé et le profil précédent reste en place
+    private static synchronized void reloadIfChanged() {
+        nextCheck = System.currentTimeMillis() + CHECK_INTERVAL_MS;
+        Path external = PROFILE_PATH.isBlank() ? null : Path.of(PROFILE_PATH);
+        try {
+            if (external != null && Files.exists(external)) {
+                long modified = Files.getLastModifiedTime(external).toMillis();
+                if (profiles != null && modified == loadedModified) {
+                    return;
+                }
+                try (InputStream in = Files.newInputStream(external)) {
+                    profiles = load(in);
+                }
+                loadedModified = modified;
+                System.out.println("🔄 Profils d'extraction chargés depuis " + external);
+            } else if (profiles == null || loadedModified != -1) {
+                try (InputStream in = ExtractionProfile.class.getResourceAsStream(BUNDLED_PROFILES)) {
+                    if (in == null) {
+                        throw new IOException("Ressource introuvable: " + BUNDLED_PROFILES);
+                    }
+                    profiles = load(in);
+                }
+                loadedModified = -1;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("❌ Profils d'extraction invalides: " + e.getMessage());
+            if (profiles == null) {
+                throw new IllegalStateException("Aucun profil d'extraction disponible", e);
+            }
+        }
+    }
+
+    private static Map<String, ExtractionProfile> load(InputStream in) throws IOException {
+        Map<String, Rules> rules = objectMapper.readValue(in, new TypeReference<LinkedHashMap<String, Rules>>() {});
+        Map<String, ExtractionProfile> compiled = new LinkedHashMap<>();
+        for (Map.Entry<String, Rules> entry : rules.entrySet()) {
+            try {
+                compiled.put(entry.getKey(), new ExtractionProfile(entry.getKey(), entry.getValue()));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("profil " + entry.getKey() + ": " + e.getMessage(), e);
+            }
+        }
+        return compiled;
+    }
+
+    private static List<Evaluator> compile(List<String> selectors) {
+        List<Evaluator> evaluators = new ArrayList<>();
+        for (String selector : selectors) {
+            evaluators.add(QueryParser.parse(selector));
+        }
+        return evaluators;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sélecteur de tous les types d'éléments article, pour StreamParser.selectNext
+     */
+    public Evaluator getArticleQuery() {
+        return articleQuery;
+    }
+
+    /**
+     * Priorité de l'élément parmi les sélecteurs d'articles (0 = préféré)
+     */
+    public int articleRank(Element element) {
+        Node top = element.root();
+        Element root = top instanceof Element ? (Element) top : element;
+        for (int i = 0; i < articles.size(); i++) {
+            if (articles.get(i).matches(root, element)) {
+                return i;
+            }
+        }
+        return articles.size();
+    }
+
+    /**
+     * Vrai si l'élément contient un article de meilleure priorité que rank (qui sera traité à part)
+     */
+    public boolean containsBetterArticle(Element element, int rank) {
+        for (int i = 0; i < rank; i++) {
+            if (element.selectFirst(articles.get(i)) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extrait l'article en un seul parcours du sous-arbre ; null si aucun titre n'est trouvé
+     * Tags et sentiment sont laissés vides
+     */
+    public Article extract(Element element) {
+        String[] titleMatches = new String[titles.size()];
+        int bestTitle = titles.size();
+        String source = null;
+        int bestSource = sources.size();
+        List<List<String>> fallbackTexts = new ArrayList<>();
+        for (int i = 0; i < sourceFallbacks.size(); i++) {
+            fallbackTexts.add(new ArrayList<>());
+        }
+        String firstLinkText = null;
+        Element dateElement = null;
+        Element imageElement = null;
+        List<String> hrefs = new ArrayList<>();
+
+        for (Element el : element.getAllElements()) {
+            for (int i = 0; i < bestTitle; i++) {
+                if (titleMatches[i] == null && titles.get(i).matches(element, el)) {
+                    String text = el.text().trim();
+                    if (text.length() > titleMinLength) {
+                        titleMatches[i] = text;
+                        bestTitle = i;
+                    }
+                }
+            }
+            for (int i = 0; i < bestSource; i++) {
+                if (sources.get(i).matches(element, el)) {
+                    String text = el.text().trim();
+                    if (!text.isEmpty()) {
+                        source = text;
+                        bestSource = i;
+                    }
+                }
+            }
+            for (int i = 0; i < sourceFallbacks.size(); i++) {
+                if (sourceFallbacks.get(i).matches(element, el)) {
+                    String text = el.text().trim();
+                    if (text.length() > 2 && text.length() < 50 && !sourceIgnore.contains(text)) {
+                        fallbackTexts.get(i).add(text);
+                    }
+                }
+            }
+            if (firstLinkText == null && ANY_LINK.matches(element, el)) {
+                firstLinkText = el.text();
+            }
+            if (dateElement == null && date != null && date.matches(element, el)) {
+                dateElement = el;
+            }
+            if (imageElement == null && image != null && image.matches(element, el)) {
+                imageElement = el;
+            }
+            if (hrefs.size() < maxLinks && link.matches(element, el)) {
+                hrefs.add(el.attr("href"));
+            }
+        }
+
+        String titre = bestTitle < titles.size() ? cleanTitle(titleMatches[bestTitle]) : fallbackTitle(element);
+        if (titre == null || titre.trim().isEmpty()) {return null;}
+
+        if (source == null) {
+            source = "Source inconnue";
+            search:
+            for (List<String> texts : fallbackTexts) {
+                for (String text : texts) {
+                    if (!text.equals(firstLinkText)) {
+                        source = text;
+                        break search;
+                    }
+                }
+            }
+        }
+
+        return new Article(titre, null, resolveUrl(hrefs), source, extractDate(dateElement),
+                imageElement != null ? imageElement.attr("src") : "", new ArrayList<>(), 0);
+    }
+
+    /**
+     * Filtre des titres parasites (bannières cookies, messages d'erreur...)
+     */
+    public boolean isValidTitle(String titre) {
+        if (titre == null) return false;
+        titre = titre.trim();
+        if (titre.length() < 5 || titre.length() > 500) return false;
+        String titreLower = titre.toLowerCase();
+        for (String filtre : rejectTitles) {
+            if (titreLower.contains(filtre)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String cleanTitle(String titre) {
+        titre = titre.trim();
+        for (Pattern pattern : titleCleanup) {
+            titre = pattern.matcher(titre).replaceAll("");
+        }
+        return titre.trim();
+    }
+
+    private static String fallbackTitle(Element element) {
+        String allText = element.text().trim();
+        if (allText.length() > 10) {
+            return allText.substring(0, Math.min(200, allText.length()));
+        }
+        return null;
+    }
+
+    private String resolveUrl(List<String> hrefs) {
+        for (String href : hrefs) {
+            if (href.startsWith("./")) {
+                return baseUrl + href.substring(1);
+            } else if (href.startsWith("https://") || href.startsWith("http://")) {
+                return href;
+            } else if (href.startsWith("/")) {
+                return baseUrl + href;
+            }
+        }
+        return "";
+    }
+
+    private static String extractDate(Element dateElement) {
+        if (dateElement != null) {
+            String datetime = dateElement.attr("datetime");
+            if (!datetime.isEmpty()) {return formatDate(datetime);}
+            String dateText = dateElement.text().trim();
+            if (!dateText.isEmpty()) {return dateText;}
+        }
+        return LocalDateTime.now().format(DATE_FORMAT);
+    }
+
+    private static String formatDate(String datetime) {
+        try {
+            if (datetime.contains("T")) {
+                LocalDateTime date = LocalDateTime.parse(datetime.replace("Z", ""));
+                return date.format(DATE_FORMAT);
+            }
+        } catch (Exception e) {System.out.println(e.getMessage());}
+        return datetime;
+    }
+}
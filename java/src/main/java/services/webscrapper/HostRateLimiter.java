@@ -0,0 +1,120 @@
+package services.webscrapper;
+
+import services.env.Env;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limiteur de débit par hôte, à seau de jetons
+ * Chaque hôte a un débit (WEB_RATE, requêtes par seconde) et une rafale autorisée (WEB_BURST),
+ * surchargeables par hôte : WEB_RATE_NEWS_GOOGLE_COM, WEB_BURST_NEWS_GOOGLE_COM...
+ * Un Retry-After reçu du serveur suspend l'hôte jusqu'à l'échéance indiquée
+ */
+public class HostRateLimiter {
+
+    private static final double DEFAULT_RATE = Double.parseDouble(Env.dotenv.get("WEB_RATE", "2"));
+    private static final int DEFAULT_BURST = Integer.parseInt(Env.dotenv.get("WEB_BURST", "4"));
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Bloque jusqu'à ce qu'une requête vers l'hôte soit autorisée
+     */
+    public void acquire(String host) throws InterruptedException {
+        TokenBucket bucket = getBucket(host);
+        long waitNanos = bucket.reserve();
+        bucket.acquired.incrementAndGet();
+        if (waitNanos > 0) {
+            bucket.waited.incrementAndGet();
+            bucket.waitedNanos.addAndGet(waitNanos);
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    /**
+     * Le serveur a refusé la requête (429, 503) : l'hôte est suspendu pendant retryAfter (si indiqué)
+     */
+    public void penalize(String host, Duration retryAfter) {
+        TokenBucket bucket = getBucket(host);
+        bucket.rejected.incrementAndGet();
+        if (retryAfter != null && !retryAfter.isNegative()) {
+            bucket.suspend(retryAfter.toNanos());
+            System.out.println("⏳ " + host + " suspendu " + retryAfter.toMillis() + " ms (Retry-After)");
+        }
+    }
+
+    /**
+     * Compteurs par hôte : permis accordés, permis ayant attendu, attente cumulée, requêtes refusées par le serveur
+     */
+    public Map<String, Metrics> getMetrics() {
+        Map<String, Metrics> metrics = new TreeMap<>();
+        buckets.forEach((host, bucket) -> metrics.put(host, new Metrics(bucket.acquired.get(), bucket.waited.get(),
+                bucket.waitedNanos.get() / 1_000_000, bucket.rejected.get())));
+        return metrics;
+    }
+
+    private TokenBucket getBucket(String host) {
+        String key = host == null ? "" : host.toLowerCase();
+        return buckets.computeIfAbsent(key, h -> {
+            String suffix = h.toUpperCase().replaceAll("[^A-Z0-9]", "_");
+            double rate = Double.parseDouble(Env.dotenv.get("WEB_RATE_" + suffix, String.valueOf(DEFAULT_RATE)));
+            int burst = Integer.parseInt(Env.dotenv.get("WEB_BURST_" + suffix, String.valueOf(DEFAULT_BURST)));
+            return new TokenBucket(rate, burst);
+        });
+    }
+
+    public record Metrics(long acquired, long waited, long waitedMillis, long rejected) {
+        @Override
+        public String toString() {
+            return acquired + " requête(s), " + waited + " attente(s) (" + waitedMillis + " ms), " + rejected + " refus";
+        }
+    }
+
+    private static class TokenBucket {
+        private final double capacity;
+        private final double nanosPerToken;
+        // Peut devenir négatif : chaque appelant réserve son jeton puis attend son tour hors du verrou
+        private double tokens;
+        // Dans le futur pendant une suspension : le remplissage ne reprend qu'à l'échéance
+        private long lastRefill = System.nanoTime();
+
+        final AtomicLong acquired = new AtomicLong();
+        final AtomicLong waited = new AtomicLong();
+        final AtomicLong waitedNanos = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+
+        TokenBucket(double ratePerSecond, int burst) {
+            this.capacity = Math.max(1, burst);
+            this.nanosPerToken = 1_000_000_000.0 / Math.max(0.001, ratePerSecond);
+            this.tokens = capacity;
+        }
+
+        // Retourne l'attente (en nanosecondes) avant que le jeton réservé soit disponible
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            refill(now);
+            tokens -= 1;
+            long wait = tokens >= 0 ? 0 : (long) (-tokens * nanosPerToken);
+            return Math.max(0, lastRefill - now) + wait;
+        }
+
+        synchronized void suspend(long nanos) {
+            long now = System.nanoTime();
+            refill(now);
+            // Une seule requête passe à l'échéance, la rafale se reconstitue ensuite au débit normal
+            tokens = Math.min(tokens, 1);
+            lastRefill = Math.max(lastRefill, now + nanos);
+        }
+
+        private void refill(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+                lastRefill = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package services.webscrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import services.env.Env;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache des réponses HTTP de WebFetcher
+ * Niveau mémoire borné en octets (éviction LRU), niveau disque optionnel (WEB_CACHE_DIR)
+ * La fraîcheur suit Cache-Control / Expires ; une réponse périmée est revalidée par ETag ou Last-Modified
+ */
+public class HttpCache {
+
+    private static final long MAX_BYTES = Long.parseLong(Env.dotenv.get("WEB_CACHE_MAX_BYTES", String.valueOf(8 * 1024 * 1024)));
+    private static final String DISK_DIR = Env.dotenv.get("WEB_CACHE_DIR", "");
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final Path diskDir;
+    private long memoryBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public HttpCache() {
+        Path dir = DISK_DIR.isBlank() ? null : Path.of(DISK_DIR);
+        if (dir != null) {
+            try {
+                Files.createDirectories(dir);
+            } catch (IOException e) {
+                System.out.println("⚠️ Cache disque désactivé (" + dir + "): " + e.getMessage());
+                dir = null;
+            }
+        }
+        this.diskDir = dir;
+    }
+
+    /**
+     * Réponse mise en cache avec ses validateurs
+     */
+    public static class Entry {
+        public String url;
+        public String body;
+        public String etag;
+        public String lastModified;
+        public long storedAt;
+        public long freshUntil;
+        public boolean noStore;
+
+        public Entry() {}
+
+        /**
+         * Fraîche si le serveur l'autorise encore, ou si elle a moins de minFresh
+         */
+        boolean isFresh(long now, Duration minFresh) {
+            return now < freshUntil || now < storedAt + minFresh.toMillis();
+        }
+
+        boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+
+        long size() {
+            return body.length() * 2L + 256;
+        }
+    }
+
+    /**
+     * Entrée connue pour l'URL (mémoire puis disque), même périmée ; null si absente
+     */
+    public Entry lookup(String url) {
+        synchronized (this) {
+            Entry entry = memory.get(url);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        Entry entry = readDisk(url);
+        if (entry != null) {
+            putMemory(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Enregistre une réponse 2xx ; minFresh permet de garder une réponse que le serveur déclare non cachable
+     */
+    public Entry store(String url, String body, HttpHeaders headers, Duration minFresh) {
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry();
+        entry.url = url;
+        entry.body = body;
+        entry.etag = headers.firstValue("ETag").orElse(null);
+        entry.lastModified = headers.firstValue("Last-Modified").orElse(null);
+        entry.storedAt = now;
+        applyFreshness(entry, headers, now);
+        if (entry.noStore && minFresh.isZero()) {
+            remove(url);
+            return entry;
+        }
+        putMemory(entry);
+        writeDisk(entry);
+        return entry;
+    }
+
+    /**
+     * Vrai si store conservera cette réponse (une réponse no-store n'est gardée que si minFresh l'impose)
+     */
+    public static boolean isStorable(HttpHeaders headers, Duration minFresh) {
+        return !minFresh.isZero() || !String.join(",", headers.allValues("Cache-Control")).toLowerCase().contains("no-store");
+    }
+
+    /**
+     * Réponse 304 : l'entrée reste valable, sa fraîcheur repart des nouveaux en-têtes
+     */
+    public Entry refresh(Entry entry, HttpHeaders headers) {
+        long now = System.currentTimeMillis();
+        entry.storedAt = now;
+        headers.firstValue("ETag").ifPresent(etag -> entry.etag = etag);
+        headers.firstValue("Last-Modified").ifPresent(date -> entry.lastModified = date);
+        applyFreshness(entry, headers, now);
+        revalidated.incrementAndGet();
+        writeDisk(entry);
+        return entry;
+    }
+
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    public synchronized String getStats() {
+        return String.format("Cache HTTP: %d entrée(s), %d Ko, %d hit(s), %d revalidation(s), %d miss",
+                memory.size(), memoryBytes / 1024, hits.get(), revalidated.get(), misses.get());
+    }
+
+    private static void applyFreshness(Entry entry, HttpHeaders headers, long now) {
+        String cacheControl = String.join(",", headers.allValues("Cache-Control")).toLowerCase();
+        entry.noStore = cacheControl.contains("no-store");
+        entry.freshUntil = now;
+        if (cacheControl.contains("no-cache") || entry.noStore) {
+            return;
+        }
+        Matcher maxAge = MAX_AGE.matcher(cacheControl);
+        if (maxAge.find()) {
+            long age = headers.firstValue("Age").map(HttpCache::parseLong).orElse(0L);
+            entry.freshUntil = now + Math.max(0, parseLong(maxAge.group(1)) - age) * 1000;
+            return;
+        }
+        headers.firstValue("Expires").ifPresent(expires -> {
+            try {
+                entry.freshUntil = ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                // Date invalide : réponse déjà périmée
+            }
+        });
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private synchronized void putMemory(Entry entry) {
+        Entry previous = memory.put(entry.url, entry);
+        if (previous != null) {
+            memoryBytes -= previous.size();
+        }
+        memoryBytes += entry.size();
+        Iterator<Entry> eldest = memory.values().iterator();
+        while (memoryBytes > MAX_BYTES && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            if (evicted == entry) {
+                break;
+            }
+            memoryBytes -= evicted.size();
+            eldest.remove();
+        }
+    }
+
+    private void remove(String url) {
+        synchronized (this) {
+            Entry previous = memory.remove(url);
+            if (previous != null) {
+                memoryBytes -= previous.size();
+            }
+        }
+        if (diskDir != null) {
+            try {
+                Files.deleteIfExists(diskPath(url));
+            } catch (IOException ignored) {
+                // Fichier déjà supprimé ou inaccessible
+            }
+        }
+    }
+
+    private Entry readDisk(String url) {
+        if (diskDir == null) {
+            return null;
+        }
+        Path path = diskPath(url);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            Entry entry = objectMapper.readValue(path.toFile(), Entry.class);
+            return url.equals(entry.url) ? entry : null;
+        } catch (IOException e) {
+            System.out.println("⚠️ Entrée de cache illisible " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Écriture dans un fichier temporaire puis renommage : un lecteur ne voit jamais de fichier partiel
+    private void writeDisk(Entry entry) {
+        if (diskDir == null || entry.noStore) {
+            return;
+        }
+        Path path = diskPath(entry.url);
+        try {
+            Path tmp = Files.createTempFile(diskDir, "entry", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), entry);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("⚠️ Écriture du cache impossible pour " + entry.url + ": " + e.getMessage());
+        }
+    }
+
+    private Path diskPath(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return diskDir.resolve(HexFormat.of().formatHex(hash) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
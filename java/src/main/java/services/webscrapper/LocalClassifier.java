@@ -0,0 +1,195 @@
+package services.webscrapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import services.env.Env;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Classement local des titres, sans appel à l'IA : sentiment par lexique et tags par mots-clés
+ * Le lexique vient de /scraping/news-lexicon.json (mots sans accents, "*" final pour un préfixe)
+ * Seuls les titres classés avec une confiance d'au moins NEWS_LOCAL_CONFIDENCE évitent l'IA
+ */
+public class LocalClassifier {
+
+    private static final String LEXICON = "/scraping/news-lexicon.json";
+    private static final double THRESHOLD = Double.parseDouble(Env.dotenv.get("NEWS_LOCAL_CONFIDENCE", "0.7"));
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_TAGS = 3;
+    // Une négation inverse la polarité des deux mots suivants ("pas de hausse")
+    private static final int NEGATION_SCOPE = 2;
+
+    private static final Terms positive;
+    private static final Terms negative;
+    private static final Set<String> negations = new HashSet<>();
+    private static final Map<String, Terms> tags = new LinkedHashMap<>();
+
+    static {
+        try (InputStream in = LocalClassifier.class.getResourceAsStream(LEXICON)) {
+            if (in == null) {
+                throw new IOException("Ressource introuvable: " + LEXICON);
+            }
+            JsonNode root = new ObjectMapper().readTree(in);
+            positive = new Terms(root.get("positive"));
+            negative = new Terms(root.get("negative"));
+            root.get("negations").forEach(word -> negations.add(word.asText()));
+            Iterator<Map.Entry<String, JsonNode>> fields = root.get("tags").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                tags.put(field.getKey(), new Terms(field.getValue()));
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new ExceptionInInitializerError("Lexique de classement invalide: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Analyse locale et confiance entre 0 et 1
+     */
+    public record Classification(AIAnalysisResult result, double confidence) {
+        public boolean isConfident() {
+            return confidence >= THRESHOLD;
+        }
+    }
+
+    public static double getThreshold() {
+        return THRESHOLD;
+    }
+
+    public static Classification classify(String titre) {
+        List<String> tokens = tokenize(titre);
+        String phrase = " " + String.join(" ", tokens) + " ";
+
+        int positifs = 0;
+        int negatifs = 0;
+        int negation = 0;
+        for (String token : tokens) {
+            boolean inverse = negation > 0;
+            negation = negations.contains(token) ? NEGATION_SCOPE : Math.max(0, negation - 1);
+            if (positive.matches(token)) {
+                if (inverse) negatifs++; else positifs++;
+            } else if (negative.matches(token)) {
+                if (inverse) positifs++; else negatifs++;
+            }
+        }
+        positifs += positive.countPhrases(phrase);
+        negatifs += negative.countPhrases(phrase);
+
+        Map<String, Integer> scores = new LinkedHashMap<>();
+        int tagHits = 0;
+        for (Map.Entry<String, Terms> tag : tags.entrySet()) {
+            int hits = tag.getValue().countPhrases(phrase);
+            for (String token : tokens) {
+                if (tag.getValue().matches(token)) {
+                    hits++;
+                }
+            }
+            if (hits > 0) {
+                scores.put(tag.getKey(), hits);
+                tagHits += hits;
+            }
+        }
+        List<String> resultTags = new ArrayList<>(scores.keySet());
+        resultTags.sort((a, b) -> scores.get(b) - scores.get(a));
+        if (resultTags.size() > MAX_TAGS) {
+            resultTags = new ArrayList<>(resultTags.subList(0, MAX_TAGS));
+        }
+
+        int sentiment = Integer.signum(positifs - negatifs);
+        double confidence = Math.min(tagConfidence(tagHits), sentimentConfidence(positifs, negatifs));
+        if (resultTags.isEmpty()) {
+            resultTags.add("actu");
+        }
+        return new Classification(new AIAnalysisResult(resultTags, sentiment), confidence);
+    }
+
+    // Un seul mot-clé reste ambigu ("prix", "course"...) et reste sous le seuil par défaut, deux ou plus sont fiables
+    private static double tagConfidence(int hits) {
+        return hits == 0 ? 0 : hits == 1 ? 0.5 : 0.9;
+    }
+
+    // Sans mot polarisé le titre est presque toujours neutre ; des mots opposés en nombre égal restent indécidables
+    private static double sentimentConfidence(int positifs, int negatifs) {
+        if (positifs + negatifs == 0) {
+            return 0.75;
+        }
+        int ecart = Math.abs(positifs - negatifs);
+        if (ecart == 0) {
+            return 0.3;
+        }
+        double confidence = 0.6 + 0.2 * Math.min(2, ecart);
+        return Math.min(positifs, negatifs) > 0 ? confidence - 0.2 : confidence;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Mots exacts, préfixes ("record*") et expressions de plusieurs mots ("garde a vue")
+     */
+    private static class Terms {
+        private final Set<String> words = new HashSet<>();
+        private final List<String> prefixes = new ArrayList<>();
+        private final List<String> phrases = new ArrayList<>();
+
+        Terms(JsonNode list) {
+            for (JsonNode node : list) {
+                String term = node.asText();
+                if (term.contains(" ")) {
+                    phrases.add(" " + term + " ");
+                } else if (term.endsWith("*")) {
+                    prefixes.add(term.substring(0, term.length() - 1));
+                } else {
+                    words.add(term);
+                }
+            }
+        }
+
+        boolean matches(String token) {
+            if (words.contains(token)) {
+                return true;
+            }
+            for (String prefix : prefixes) {
+                if (token.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int countPhrases(String phrase) {
+            int count = 0;
+            for (String expression : phrases) {
+                if (phrase.contains(expression)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package services.webscrapper;
+
+import model.Article;
+import services.ai.AIClient;
+import services.env.Env;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Collecte des actualités de plusieurs villes en parallèle
+ * Chaque ville traverse trois étapes, chacune avec sa propre limite de concurrence :
+ * collecte et analyse HTML en flux (threads virtuels), enrichissement IA (limité en débit) et sauvegarde
+ * Les articles partent vers l'IA par lots dès qu'ils sont extraits, sans attendre la fin de la page
+ * Une ville est sauvegardée dès que ses articles sont prêts, sans attendre les autres
+ * Seuls les articles nouveaux ou modifiés depuis la dernière collecte (SeenUrlFilter puis ArticleIndex) sont enrichis et sauvegardés
+ */
+public class NewsPipeline {
+
+    private static final int FETCH_CONCURRENCY = Integer.parseInt(Env.dotenv.get("NEWS_FETCH_CONCURRENCY", "4"));
+    private static final int AI_CONCURRENCY = Integer.parseInt(Env.dotenv.get("NEWS_AI_CONCURRENCY", "2"));
+
+    /**
+     * Collecte les articles de chaque ville et appelle persist (un seul thread) pour chaque ville ayant du nouveau
+     * Une ville en erreur donne une liste vide et n'interrompt pas les autres
+     * Retourne les articles nouveaux ou modifiés par ville, dans l'ordre des villes
+     */
+    public static Map<String, List<Article>> collect(List<String> villes, int limite,
+                                                     BiConsumer<String, List<Article>> persist) {
+        long debut = System.currentTimeMillis();
+        // Chargés ici une fois : une reconstruction sous verrou depuis les threads de collecte les bloquerait tous
+        // (et immobiliserait leurs threads porteurs pendant la lecture de news_collection)
+        SeenUrlFilter.preload();
+        ArticleIndex.preload();
+        Semaphore fetchPermits = new Semaphore(FETCH_CONCURRENCY);
+        Map<String, CompletableFuture<List<Article>>> futures = new LinkedHashMap<>();
+
+        try (ExecutorService fetchExecutor = Executors.newThreadPerTaskExecutor(
+                     Thread.ofVirtual().name("news-fetch-", 1).factory());
+             ExecutorService aiExecutor = Executors.newFixedThreadPool(AI_CONCURRENCY, namedDaemon("news-ia-"));
+             ExecutorService persistExecutor = Executors.newSingleThreadExecutor(namedDaemon("news-persist-"))) {
+
+            for (String ville : villes) {
+                CompletableFuture<List<Article>> future = CompletableFuture
+                        .supplyAsync(() -> fetch(ville, limite, fetchPermits, aiExecutor), fetchExecutor)
+                        .thenCompose(NewsPipeline::joinAll)
+                        .exceptionally(e -> {
+                            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                            System.out.println("❌ Collecte échouée pour " + ville + ": " + cause.getMessage());
+                            return new ArrayList<>();
+                        });
+                futures.put(ville, future.thenApplyAsync(articles -> {
+                    if (persist != null && !articles.isEmpty()) {
+                        persist.accept(ville, articles);
+                    }
+                    return articles;
+                }, persistExecutor));
+            }
+
+            Map<String, List<Article>> resultats = new LinkedHashMap<>();
+            for (Map.Entry<String, CompletableFuture<List<Article>>> entry : futures.entrySet()) {
+                try {
+                    resultats.put(entry.getKey(), entry.getValue().join());
+                } catch (CompletionException e) {
+                    System.out.println("❌ Sauvegarde échouée pour " + entry.getKey() + ": " + e.getCause().getMessage());
+                    resultats.put(entry.getKey(), new ArrayList<>());
+                }
+            }
+            System.out.println("📰 Collecte terminée: " + villes.size() + " ville(s) en "
+                    + (System.currentTimeMillis() - debut) + " ms");
+            WebFetcher.getRateLimitMetrics().forEach((host, metrics) ->
+                    System.out.println("📊 Débit " + host + ": " + metrics));
+            System.out.println("📊 " + WebFetcher.getCacheStats());
+            System.out.println("📊 " + AIAnalysisCache.getStats());
+            System.out.println("📊 " + AIClient.shared().getMetrics());
+            System.out.println("📊 " + SeenUrlFilter.getStats());
+            ArticleIndex.save();
+            SeenUrlFilter.flush();
+            return resultats;
+        }
+    }
+
+    // Le sémaphore borne le nombre de requêtes HTTP simultanées, les threads virtuels rendent l'attente gratuite
+    // Les articles extraits partent vers l'étape IA par lots de NEWS_AI_BATCH_SIZE, pendant que la suite de la page est lue
+    // Un article déjà sauvegardé à l'identique, ou déjà vu dans la page, n'est pas renvoyé à l'IA
+    private static List<CompletableFuture<List<Article>>> fetch(String ville, int limite, Semaphore permits, ExecutorService aiExecutor) {
+        List<CompletableFuture<List<Article>>> lots = new ArrayList<>();
+        List<Article> lot = new ArrayList<>();
+        Set<String> vus = new HashSet<>();
+        Map<ArticleIndex.State, Integer> etats = new EnumMap<>(ArticleIndex.State.class);
+        try {
+            permits.acquire();
+            try {
+                News.streamArticles(ville, limite, article -> {
+                    ArticleFingerprint fingerprint = ArticleFingerprint.of(article);
+                    if (!vus.add(fingerprint.id())) {
+                        return;
+                    }
+                    // Le filtre écarte sans lecture de l'index la plupart des articles jamais vus
+                    ArticleIndex.State etat = SeenUrlFilter.mightContain(ville, fingerprint)
+                            ? ArticleIndex.check(ville, fingerprint) : ArticleIndex.State.NEW;
+                    etats.merge(etat, 1, Integer::sum);
+                    if (etat == ArticleIndex.State.UNCHANGED) {
+                        return;
+                    }
+                    lot.add(article);
+                    if (lot.size() >= ArticleEnricher.getBatchSize()) {
+                        lots.add(enrich(new ArrayList<>(lot), aiExecutor));
+                        lot.clear();
+                    }
+                });
+            } finally {
+                permits.release();
+            }
+            if (!lot.isEmpty()) {
+                lots.add(enrich(lot, aiExecutor));
+            }
+            System.out.println("🗂️ " + ville + ": " + etats.getOrDefault(ArticleIndex.State.NEW, 0) + " nouveau(x), "
+                    + etats.getOrDefault(ArticleIndex.State.CHANGED, 0) + " modifié(s), "
+                    + etats.getOrDefault(ArticleIndex.State.UNCHANGED, 0) + " inchangé(s)");
+            return lots;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static CompletableFuture<List<Article>> enrich(List<Article> lot, ExecutorService aiExecutor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ArticleEnricher.enrichBatch(lot);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, aiExecutor);
+    }
+
+    private static CompletableFuture<List<Article>> joinAll(List<CompletableFuture<List<Article>>> lots) {
+        return CompletableFuture.allOf(lots.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> lots.stream().flatMap(lot -> lot.join().stream()).toList());
+    }
+
+    private static ThreadFactory namedDaemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
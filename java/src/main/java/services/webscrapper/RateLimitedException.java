@@ -0,0 +1,24 @@
+package services.webscrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Requête refusée par le serveur pour excès de débit (HTTP 429 ou 503)
+ */
+public class RateLimitedException extends IOException {
+
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Délai demandé par le serveur, null s'il n'a pas envoyé de Retry-After
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,33 @@
+package services.webscrapper;
+
+import java.time.Duration;
+
+/**
+ * Espace les appels d'au moins un intervalle fixe, partagé entre tous les threads
+ * Remplace les Thread.sleep placés après chaque appel : l'attente ne se fait que si nécessaire
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextSlot = System.nanoTime();
+
+    public RateLimiter(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Bloque jusqu'au prochain créneau libre
+     */
+    public void acquire() throws InterruptedException {
+        long slot;
+        synchronized (this) {
+            long now = System.nanoTime();
+            slot = Math.max(now, nextSlot);
+            nextSlot = slot + intervalNanos;
+        }
+        long waitNanos = slot - System.nanoTime();
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+}
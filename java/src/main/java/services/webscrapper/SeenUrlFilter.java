@@ -0,0 +1,200 @@
+package services.webscrapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import services.bdd.BddNew;
+import services.env.Env;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+
+/**
+ * Filtre de Bloom des articles déjà sauvegardés (ville + empreinte d'URL), projeté en mémoire depuis NEWS_SEEN_FILTER_PATH
+ * Taille et nombre de hachages calculés depuis NEWS_SEEN_EXPECTED (articles attendus) et NEWS_SEEN_FPP (taux de faux positifs)
+ * Une réponse négative est certaine : l'article est nouveau sans consulter ArticleIndex ; une réponse positive doit être confirmée
+ * Le filtre est reconstruit depuis news_collection s'il est absent ou dimensionné autrement
+ */
+public class SeenUrlFilter {
+
+    private static final int MAGIC = 0x4D56_4246; // "MVBF"
+    // En-tête : magic, version, nombre de bits, nombre de hachages, articles ajoutés, contenu complet (1) ou non (0)
+    private static final int HEADER_BYTES = 32;
+    private static final long EXPECTED = Long.parseLong(Env.dotenv.get("NEWS_SEEN_EXPECTED", "100000"));
+    private static final double FPP = Double.parseDouble(Env.dotenv.get("NEWS_SEEN_FPP", "0.01"));
+    private static final Path FILTER_PATH = Path.of(Env.dotenv.get("NEWS_SEEN_FILTER_PATH",
+            Path.of(System.getProperty("user.home"), ".monvoisin3000", "seen-urls.bloom").toString()));
+
+    private static MappedByteBuffer bits;
+    private static long bitCount;
+    private static int hashCount;
+    // Faux tant que le contenu n'est pas fiable (reconstruction échouée) : toutes les réponses sont alors positives
+    private static boolean ready = false;
+
+    /**
+     * Ouvre le filtre (et le reconstruit si besoin) avant la collecte, hors des threads virtuels
+     */
+    public static synchronized void preload() {
+        open();
+    }
+
+    /**
+     * Faux si l'article n'a jamais été sauvegardé pour la ville ; vrai s'il l'a peut-être été
+     */
+    public static synchronized boolean mightContain(String ville, ArticleFingerprint fingerprint) {
+        if (!open() || !ready) {
+            return true;
+        }
+        long[] hash = hash(ville, fingerprint);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash, i);
+            if ((bits.get(HEADER_BYTES + (int) (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static synchronized void put(String ville, ArticleFingerprint fingerprint) {
+        if (!open()) {
+            return;
+        }
+        long[] hash = hash(ville, fingerprint);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash, i);
+            int offset = HEADER_BYTES + (int) (bit >>> 3);
+            bits.put(offset, (byte) (bits.get(offset) | (1 << (bit & 7))));
+        }
+        bits.putLong(20, bits.getLong(20) + 1);
+    }
+
+    /**
+     * Vide le filtre puis y ajoute chaque article de news_collection
+     */
+    public static synchronized int rebuildFromDatabase() {
+        if (!open()) {
+            return 0;
+        }
+        for (int offset = HEADER_BYTES; offset < bits.capacity(); offset++) {
+            bits.put(offset, (byte) 0);
+        }
+        bits.putLong(20, 0);
+        bits.putInt(28, 0);
+        int[] count = {0};
+        String erreur;
+        try {
+            erreur = BddNew.requestStream("mongo", "SELECT ville, fingerprint FROM news_collection",
+                    row -> {
+                        JsonNode ville = row.get("ville");
+                        JsonNode fingerprint = row.get("fingerprint");
+                        if (ville != null && fingerprint != null && !fingerprint.isNull()) {
+                            put(ville.asText(), new ArticleFingerprint(fingerprint.asText(), null));
+                            count[0]++;
+                        }
+                    });
+        } catch (RuntimeException e) {
+            erreur = e.getMessage();
+        }
+        ready = erreur == null;
+        if (ready) {
+            bits.putInt(28, 1);
+            bits.force();
+            System.out.println("🌸 Filtre des articles vus reconstruit: " + count[0] + " article(s)");
+        } else {
+            System.out.println("⚠️ Reconstruction du filtre des articles vus impossible: " + erreur);
+        }
+        return count[0];
+    }
+
+    /**
+     * Écrit les pages modifiées sur disque
+     */
+    public static synchronized void flush() {
+        if (bits != null) {
+            bits.force();
+        }
+    }
+
+    public static synchronized String getStats() {
+        if (!open()) {
+            return "Filtre des articles vus: indisponible";
+        }
+        long inserted = bits.getLong(20);
+        // Taux de faux positifs attendu pour le remplissage actuel : (1 - e^(-k n / m))^k
+        double fpp = Math.pow(1 - Math.exp(-(double) hashCount * inserted / bitCount), hashCount);
+        return String.format("Filtre des articles vus: %d article(s), %d Ko, %d hachage(s), faux positifs ~%.3f%%",
+                inserted, bitCount / 8 / 1024, hashCount, fpp * 100);
+    }
+
+    // Ouvre ou crée le fichier au premier appel ; un en-tête différent de la configuration déclenche une reconstruction
+    private static boolean open() {
+        if (bits != null) {
+            return true;
+        }
+        long m = Math.max(64, (long) Math.ceil(-EXPECTED * Math.log(FPP) / (Math.log(2) * Math.log(2))));
+        m = (m + 63) / 64 * 64;
+        int k = Math.max(1, (int) Math.round((double) m / EXPECTED * Math.log(2)));
+        long size = HEADER_BYTES + m / 8;
+        if (size > Integer.MAX_VALUE) {
+            System.out.println("⚠️ Filtre des articles vus trop grand (" + size + " octets), désactivé");
+            return false;
+        }
+
+        try {
+            Files.createDirectories(FILTER_PATH.toAbsolutePath().getParent());
+            boolean compatible = Files.exists(FILTER_PATH) && Files.size(FILTER_PATH) == size;
+            try (FileChannel channel = FileChannel.open(FILTER_PATH, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (!compatible) {
+                    channel.truncate(0);
+                }
+                // La projection reste valide après la fermeture du canal
+                bits = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+            compatible = compatible && bits.getInt(0) == MAGIC && bits.getLong(8) == m && bits.getInt(16) == k
+                    && bits.getInt(28) == 1;
+            bitCount = m;
+            hashCount = k;
+            if (compatible) {
+                ready = true;
+                return true;
+            }
+            bits.putInt(0, MAGIC);
+            bits.putInt(4, 1);
+            bits.putLong(8, m);
+            bits.putInt(16, k);
+        } catch (IOException e) {
+            System.out.println("⚠️ Filtre des articles vus indisponible (" + FILTER_PATH + "): " + e.getMessage());
+            bits = null;
+            return false;
+        }
+        rebuildFromDatabase();
+        return true;
+    }
+
+    // Double hachage (Kirsch-Mitzenmacher) : l'empreinte est déjà un SHA-256, seule la ville est mélangée
+    private static long[] hash(String ville, ArticleFingerprint fingerprint) {
+        byte[] id = HexFormat.of().parseHex(fingerprint.id());
+        long h1 = 0;
+        long h2 = 0;
+        for (int i = 0; i < 8; i++) {
+            h1 = (h1 << 8) | (id[i] & 0xFF);
+            h2 = (h2 << 8) | (id[i + 8] & 0xFF);
+        }
+        long villeHash = mix(ville.toLowerCase().hashCode());
+        return new long[]{h1 ^ villeHash, (h2 ^ mix(villeHash)) | 1};
+    }
+
+    private static long index(long[] hash, int i) {
+        return Math.floorMod(hash[0] + i * hash[1], bitCount);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -2,26 +2,156 @@ package services.webscrapper;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import services.env.Env;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 public class WebFetcher {
+    // Partagé par toutes les instances : le budget d'un hôte vaut pour toute l'application
+    private static final HostRateLimiter rateLimiter = new HostRateLimiter();
+    private static final HttpCache cache = new HttpCache();
+    private static final long BACKOFF_BASE_MS = Long.parseLong(Env.dotenv.get("WEB_BACKOFF_BASE_MS", "1000"));
+    // Encodages décodés par decodeBody (brotli n'est pas disponible dans le JDK)
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    private static final Pattern CHARSET = Pattern.compile("charset=\"?([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+    private static final long BACKOFF_MAX_MS = Long.parseLong(Env.dotenv.get("WEB_BACKOFF_MAX_MS", "30000"));
+
+    // Client unique : ses connexions (HTTP/2 multiplexées, HTTP/1.1 keep-alive) sont réutilisées par tous les appels
+    private static final HttpClient sharedClient = createClient();
+
     private final HttpClient client;
 
     public WebFetcher() {
-        this.client = HttpClient.newBuilder()
+        this.client = sharedClient;
+    }
+
+    private static HttpClient createClient() {
+        // Réglages du pool de connexions du JDK, lus à la création du premier client
+        setDefaultProperty("jdk.httpclient.keepalive.timeout", Env.dotenv.get("WEB_KEEPALIVE_SECONDS", "60"));
+        setDefaultProperty("jdk.httpclient.connectionPoolSize", Env.dotenv.get("WEB_CONNECTION_POOL_SIZE", "16"));
+
+        int threads = Integer.parseInt(Env.dotenv.get("WEB_HTTP_THREADS", "4"));
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "web-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2) // Repli automatique en HTTP/1.1 si le serveur ne le propose pas
+                .executor(executor)
                 .connectTimeout(Duration.ofSeconds(10))
                 .followRedirects(HttpClient.Redirect.NORMAL) // Suivre les redirections
                 .build();
     }
 
+    private static void setDefaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
     public String fetch(String url, Map<String, String> headers) throws IOException, InterruptedException {
+        return fetch(url, headers, Duration.ZERO);
+    }
+
+    /**
+     * Comme fetch, en servant la réponse en cache tant qu'elle est fraîche
+     * minFresh impose une durée de fraîcheur minimale, même si le serveur déclare la page non cachable
+     * Une réponse périmée est revalidée par une requête conditionnelle (If-None-Match / If-Modified-Since)
+     */
+    public String fetch(String url, Map<String, String> headers, Duration minFresh) throws IOException, InterruptedException {
+        HttpCache.Entry cached = cache.lookup(url);
+        if (cached != null && cached.isFresh(System.currentTimeMillis(), minFresh)) {
+            cache.recordHit();
+            return cached.body;
+        }
+
+        HttpRequest request = buildRequest(url, headers, cached);
+        String host = request.uri().getHost();
+        rateLimiter.acquire(host);
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        int statusCode = response.statusCode();
+        if (statusCode == 304 && cached != null) {
+            return cache.refresh(cached, response.headers()).body;
+        } else if (statusCode >= 200 && statusCode < 300) {
+            cache.recordMiss();
+            return cache.store(url, decodeBody(response), response.headers(), minFresh).body;
+        }
+        String location = redirectLocation(response);
+        if (location != null) {
+            return fetch(location, headers, minFresh);
+        }
+        throw failure(response, host);
+    }
+
+    /**
+     * Ouvre la réponse en flux : le corps est décompressé et décodé au fil de la lecture
+     * Une réponse que le cache conservera est téléchargée jusqu'au bout même si le Reader est fermé avant la fin,
+     * pour que la prochaine lecture de l'URL soit servie par le cache ; sinon fermer le Reader interrompt le téléchargement
+     */
+    public Reader openStream(String url, Map<String, String> headers, Duration minFresh) throws IOException, InterruptedException {
+        HttpCache.Entry cached = cache.lookup(url);
+        if (cached != null && cached.isFresh(System.currentTimeMillis(), minFresh)) {
+            cache.recordHit();
+            return new StringReader(cached.body);
+        }
+
+        HttpRequest request = buildRequest(url, headers, cached);
+        String host = request.uri().getHost();
+        rateLimiter.acquire(host);
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        int statusCode = response.statusCode();
+        if (statusCode >= 200 && statusCode < 300) {
+            cache.recordMiss();
+            Reader reader = new InputStreamReader(decodingStream(response.body(), response.headers()), charsetOf(response.headers()));
+            return new CachingReader(reader, HttpCache.isStorable(response.headers(), minFresh),
+                    body -> cache.store(url, body, response.headers(), minFresh));
+        }
+        response.body().close();
+        if (statusCode == 304 && cached != null) {
+            return new StringReader(cache.refresh(cached, response.headers()).body);
+        }
+        String location = redirectLocation(response);
+        if (location != null) {
+            return openStream(location, headers, minFresh);
+        }
+        throw failure(response, host);
+    }
+
+    private HttpRequest buildRequest(String url, Map<String, String> headers, HttpCache.Entry cached) {
         HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .GET()
@@ -39,26 +169,46 @@ public class WebFetcher {
             }
         });
 
-        HttpRequest request = requestBuilder.build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        // Réponse compressée sauf si l'appelant impose son propre Accept-Encoding
+        if (headers.keySet().stream().noneMatch("Accept-Encoding"::equalsIgnoreCase)) {
+            requestBuilder.header("Accept-Encoding", ACCEPT_ENCODING);
+        }
 
-        int statusCode = response.statusCode();
-        if (statusCode >= 200 && statusCode < 300) {
-            return response.body();
-        } else if (statusCode >= 300 && statusCode < 400) {
-            String location = response.headers().firstValue("Location").orElse("");
-            if (!location.isEmpty()) {
-                System.out.println("redirection vers: " + location);
-                return fetch(location, headers);
+        if (cached != null && cached.canRevalidate()) {
+            if (cached.etag != null) {
+                requestBuilder.header("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                requestBuilder.header("If-Modified-Since", cached.lastModified);
             }
+        }
+        return requestBuilder.build();
+    }
+
+    // Location d'une redirection 3xx, null pour les autres statuts
+    private static String redirectLocation(HttpResponse<?> response) throws IOException {
+        int statusCode = response.statusCode();
+        if (statusCode < 300 || statusCode >= 400) {
+            return null;
+        }
+        String location = response.headers().firstValue("Location").orElse("");
+        if (location.isEmpty()) {
             throw new IOException("HTTP " + statusCode + " - Redirection sans location");
-        } else if (statusCode == 403) {
-            throw new IOException("HTTP 403 - Accès interdit (possiblement bloqué par anti-bot)");
-        } else if (statusCode == 429) {
-            throw new IOException("HTTP 429 - Trop de requêtes (rate limit)");
-        } else {
-            throw new IOException("HTTP " + statusCode + " - " + getStatusMessage(statusCode));
         }
+        System.out.println("redirection vers: " + location);
+        return location;
+    }
+
+    private IOException failure(HttpResponse<?> response, String host) {
+        int statusCode = response.statusCode();
+        if (statusCode == 403) {
+            return new IOException("HTTP 403 - Accès interdit (possiblement bloqué par anti-bot)");
+        } else if (statusCode == 429 || statusCode == 503) {
+            Duration retryAfter = parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null));
+            rateLimiter.penalize(host, retryAfter);
+            return new RateLimitedException("HTTP " + statusCode + " - " + getStatusMessage(statusCode) + " (rate limit)", retryAfter);
+        }
+        return new IOException("HTTP " + statusCode + " - " + getStatusMessage(statusCode));
     }
 
     public String fetch(String url) throws IOException, InterruptedException {
@@ -71,17 +221,39 @@ public class WebFetcher {
     }
 
     public String fetchWithRetry(String url, Map<String, String> headers, int maxRetries) throws IOException, InterruptedException {
+        return fetchWithRetry(url, headers, maxRetries, Duration.ZERO);
+    }
+
+    public String fetchWithRetry(String url, Map<String, String> headers, int maxRetries, Duration minFresh) throws IOException, InterruptedException {
+        return withRetry(url, maxRetries, () -> fetch(url, headers, minFresh));
+    }
+
+    /**
+     * openStream avec nouvelles tentatives ; seule l'ouverture est retentée, pas la lecture du flux
+     */
+    public Reader openStreamWithRetry(String url, Map<String, String> headers, int maxRetries, Duration minFresh) throws IOException, InterruptedException {
+        return withRetry(url, maxRetries, () -> openStream(url, headers, minFresh));
+    }
+
+    @FunctionalInterface
+    private interface HttpCall<T> {
+        T call() throws IOException, InterruptedException;
+    }
+
+    private <T> T withRetry(String url, int maxRetries, HttpCall<T> call) throws IOException, InterruptedException {
         IOException lastException = null;
 
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
             try {
                 if (attempt > 1) {
                     System.out.println("tentative " + attempt + "/" + maxRetries + " pour: " + url);
-                    // Délai exponentiel entre les tentatives
-                    Thread.sleep(1000 * attempt);
+                    // Avec un Retry-After, l'attente est déjà imposée par le limiteur de l'hôte
+                    if (!(lastException instanceof RateLimitedException) || ((RateLimitedException) lastException).getRetryAfter() == null) {
+                        Thread.sleep(backoffDelay(attempt - 1));
+                    }
                 }
 
-                return fetch(url, headers);
+                return call.call();
 
             } catch (IOException e) {
                 lastException = e;
@@ -102,6 +274,144 @@ public class WebFetcher {
                 (lastException != null ? lastException.getMessage() : "erreur inconnue"));
     }
 
+    // Décompresse selon Content-Encoding puis décode selon le charset annoncé (UTF-8 par défaut)
+    static String decodeBody(HttpResponse<byte[]> response) throws IOException {
+        try (InputStream in = decodingStream(new ByteArrayInputStream(response.body()), response.headers())) {
+            return new String(in.readAllBytes(), charsetOf(response.headers()));
+        }
+    }
+
+    static InputStream decodingStream(InputStream raw, HttpHeaders headers) throws IOException {
+        String encoding = headers.firstValue("Content-Encoding").orElse("identity").trim().toLowerCase();
+        switch (encoding) {
+            case "gzip", "x-gzip":
+                return new GZIPInputStream(raw);
+            case "deflate": {
+                // "deflate" est normalement enveloppé en zlib, certains serveurs envoient du deflate brut
+                BufferedInputStream in = new BufferedInputStream(raw);
+                in.mark(2);
+                int cmf = in.read();
+                int flg = in.read();
+                in.reset();
+                boolean zlib = cmf >= 0 && flg >= 0 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+                return new InflaterInputStream(in, new Inflater(!zlib));
+            }
+            case "identity", "":
+                return raw;
+            default:
+                raw.close();
+                throw new IOException("Content-Encoding non supporté: " + encoding);
+        }
+    }
+
+    static Charset charsetOf(HttpHeaders headers) {
+        Matcher matcher = CHARSET.matcher(headers.firstValue("Content-Type").orElse(""));
+        if (matcher.find()) {
+            try {
+                return Charset.forName(matcher.group(1));
+            } catch (IllegalArgumentException ignored) {
+                // Charset inconnu : UTF-8
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Recopie les caractères lus pour mettre la réponse en cache une fois le flux lu jusqu'au bout
+     * Avec drainOnClose, une fermeture anticipée lit d'abord la fin du corps pour compléter la copie
+     */
+    private static class CachingReader extends FilterReader {
+        private final boolean drainOnClose;
+        private final Consumer<String> onComplete;
+        private StringBuilder copy = new StringBuilder();
+
+        CachingReader(Reader in, boolean drainOnClose, Consumer<String> onComplete) {
+            super(in);
+            this.drainOnClose = drainOnClose;
+            this.onComplete = onComplete;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c < 0) {
+                complete();
+            } else if (copy != null) {
+                copy.append((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n < 0) {
+                complete();
+            } else if (copy != null) {
+                copy.append(buffer, offset, n);
+            }
+            return n;
+        }
+
+        private void complete() {
+            if (copy != null) {
+                onComplete.accept(copy.toString());
+                copy = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (drainOnClose && copy != null) {
+                try {
+                    char[] buffer = new char[8192];
+                    while (read(buffer, 0, buffer.length) >= 0) {
+                        // La copie est complétée par read ; complete() est appelé en fin de flux
+                    }
+                } catch (IOException e) {
+                    System.out.println("⚠️ Fin de réponse illisible, pas de mise en cache: " + e.getMessage());
+                }
+            }
+            copy = null;
+            super.close();
+        }
+    }
+
+    /**
+     * Compteurs du limiteur de débit, par hôte
+     */
+    public static Map<String, HostRateLimiter.Metrics> getRateLimitMetrics() {
+        return rateLimiter.getMetrics();
+    }
+
+    public static String getCacheStats() {
+        return cache.getStats();
+    }
+
+    // Délai exponentiel avec gigue complète : évite que des requêtes parallèles repartent toutes en même temps
+    static long backoffDelay(int retry) {
+        long ceiling = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(retry, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    // Retry-After : nombre de secondes ou date HTTP
+    static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration delay = Duration.between(ZonedDateTime.now(date.getZone()), date);
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
     public Document parseHtml(String html) {
         if (html == null || html.trim().isEmpty()) {
             throw new IllegalArgumentException("HTML content is null or empty");
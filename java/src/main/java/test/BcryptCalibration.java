@@ -0,0 +1,55 @@
+package test;
+
+import services.security.AuthenticationService;
+import services.security.LoginThrottledException;
+import services.security.Security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Choisit le coût bcrypt (BCRYPT_ROUNDS) pour une latence visée sur cette machine, puis simule une rafale de connexions
+ * La rafale montre la répartition entre vérifications acceptées, refusées et mots de passe incorrects
+ * Usage : BcryptCalibration [latence visée en ms] [nombre de connexions de la rafale]
+ */
+public class BcryptCalibration {
+
+    public static void main(String[] args) {
+        long target = args.length > 0 ? Long.parseLong(args[0]) : 250;
+        int burst = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        System.out.println("coût | durée d'un hash");
+        for (int rounds = 8; rounds <= 12; rounds++) {
+            System.out.printf("%4d | %6d ms%n", rounds, AuthenticationService.measure("calibration", rounds));
+        }
+        int rounds = AuthenticationService.calibrate(target);
+        System.out.println("➡️ BCRYPT_ROUNDS=" + rounds + "\n");
+
+        // Rafale : 10 comptes, mot de passe correct une fois sur deux
+        String hash = Security.hashBcrypt("motdepasse", rounds);
+        int[] counts = new int[3];
+        List<CompletableFuture<Void>> attempts = new ArrayList<>();
+        long debut = System.nanoTime();
+        for (int i = 0; i < burst; i++) {
+            String password = i % 2 == 0 ? "motdepasse" : "mauvais";
+            attempts.add(AuthenticationService.verifyAsync("voisin" + (i % 10) + "@example.fr", password, hash)
+                    .handle((valid, error) -> {
+                        synchronized (counts) {
+                            if (error != null) {
+                                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                                counts[cause instanceof LoginThrottledException ? 2 : 1]++;
+                            } else {
+                                counts[valid ? 0 : 1]++;
+                            }
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(attempts.toArray(new CompletableFuture<?>[0])).join();
+        System.out.printf("Rafale de %d connexions en %d ms: %d acceptée(s), %d incorrecte(s), %d refusée(s)%n",
+                burst, (System.nanoTime() - debut) / 1_000_000, counts[0], counts[1], counts[2]);
+        System.out.println(AuthenticationService.getStats());
+    }
+}
@@ -0,0 +1,114 @@
+package test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import services.env.Env;
+import services.webscrapper.LocalClassifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Mesure LocalClassifier sur un corpus de réponses de l'IA (une ligne JSON par titre, écrite via NEWS_AI_CORPUS_PATH)
+ * Pendant l'enregistrement tous les titres vont à l'IA : chaque seuil est mesuré, y compris au-dessus du seuil courant
+ * Pour chaque seuil de confiance : part des titres traités sans IA, accord avec l'IA sur le sentiment et les tags
+ * Usage : LocalClassifierBenchmark [corpus.jsonl]
+ */
+public class LocalClassifierBenchmark {
+
+    // Assez de passes pour que le JIT ait compilé le classement avant la mesure
+    private static final int MIN_CLASSIFICATIONS = 200_000;
+
+    private record Sample(String titre, Set<String> tags, int sentiment) {}
+
+    private record Scored(LocalClassifier.Classification classification, Sample sample) {}
+
+    public static void main(String[] args) throws Exception {
+        String path = args.length > 0 ? args[0] : Env.dotenv.get("NEWS_AI_CORPUS_PATH", "");
+        if (path.isBlank()) {
+            System.out.println("Usage: LocalClassifierBenchmark <corpus.jsonl> (ou NEWS_AI_CORPUS_PATH)");
+            return;
+        }
+        List<Sample> corpus = load(Path.of(path));
+        if (corpus.isEmpty()) {
+            System.out.println("Corpus vide: " + path);
+            return;
+        }
+        System.out.println("📚 " + corpus.size() + " titre(s) annotés par l'IA");
+
+        // Chauffe puis mesure du coût par titre
+        List<Scored> scored = new ArrayList<>();
+        for (Sample sample : corpus) {
+            scored.add(new Scored(LocalClassifier.classify(sample.titre()), sample));
+        }
+        int iterations = Math.max(1, MIN_CLASSIFICATIONS / corpus.size());
+        long debut = 0;
+        for (int i = 0; i < 2 * iterations; i++) {
+            if (i == iterations) {
+                debut = System.nanoTime();
+            }
+            for (Sample sample : corpus) {
+                LocalClassifier.classify(sample.titre());
+            }
+        }
+        double microsParTitre = (System.nanoTime() - debut) / 1000.0 / iterations / corpus.size();
+        System.out.printf("⏱️ %.1f µs par titre%n%n", microsParTitre);
+
+        System.out.println("seuil | sans IA | sentiment OK | tag commun | appels IA évités");
+        for (int pas = 3; pas <= 9; pas++) {
+            double seuil = pas / 10.0;
+            int locaux = 0;
+            int sentimentOk = 0;
+            int tagOk = 0;
+            for (Scored s : scored) {
+                if (s.classification().confidence() < seuil) {
+                    continue;
+                }
+                locaux++;
+                if (s.classification().result().sentiment == s.sample().sentiment()) {
+                    sentimentOk++;
+                }
+                for (String tag : s.classification().result().tags) {
+                    if (s.sample().tags().contains(normalize(tag))) {
+                        tagOk++;
+                        break;
+                    }
+                }
+            }
+            System.out.printf("%s%.1f |  %5.1f%% |       %5.1f%% |     %5.1f%% | %d%n",
+                    Math.abs(seuil - LocalClassifier.getThreshold()) < 1e-9 ? "*" : " ", seuil,
+                    percent(locaux, corpus.size()), percent(sentimentOk, locaux), percent(tagOk, locaux), locaux);
+        }
+        System.out.println("\n* seuil courant (NEWS_LOCAL_CONFIDENCE)");
+    }
+
+    private static List<Sample> load(Path path) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Sample> corpus = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            Set<String> tags = new HashSet<>();
+            node.path("tags").forEach(tag -> tags.add(normalize(tag.asText())));
+            corpus.add(new Sample(node.path("titre").asText(), tags, node.path("sentiment").asInt()));
+        }
+        return corpus;
+    }
+
+    private static String normalize(String tag) {
+        return Normalizer.normalize(tag, Normalizer.Form.NFD).replaceAll("\\p{M}+", "").toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static double percent(int part, int total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+}
@@ -0,0 +1,72 @@
+package test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import services.startup.StartupMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthèse des mesures de démarrage écrites par StartupMetrics (une ligne JSON par lancement)
+ * Pour chaque jalon (première image, première requête, base/IA/plugins prêts) : médiane, p90, min, max et dernier lancement
+ * Série de lancements : STARTUP_EXIT_AFTER_READY=true ferme l'application dès qu'elle est prête, par exemple
+ * for i in $(seq 10); do STARTUP_EXIT_AFTER_READY=true mvn -q javafx:run; done
+ * Usage : StartupMetricsReport [startup-metrics.jsonl] [nombre de derniers lancements]
+ */
+public class StartupMetricsReport {
+
+    public static void main(String[] args) throws Exception {
+        Path path = args.length > 0 ? Path.of(args[0]) : StartupMetrics.getMetricsPath();
+        int last = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+        if (!Files.exists(path)) {
+            System.out.println("Aucune mesure: " + path);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<JsonNode> runs = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                runs.add(objectMapper.readTree(line));
+            }
+        }
+        runs = runs.subList(Math.max(0, runs.size() - last), runs.size());
+        if (runs.isEmpty()) {
+            System.out.println("Aucune mesure: " + path);
+            return;
+        }
+        System.out.println("⏱️ " + runs.size() + " lancement(s), du " + runs.get(0).path("date").asText()
+                + " au " + runs.get(runs.size() - 1).path("date").asText() + "\n");
+
+        // Jalons dans l'ordre de première apparition
+        Map<String, List<Long>> values = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            run.fields().forEachRemaining(field -> {
+                if (field.getValue().isNumber()) {
+                    values.computeIfAbsent(field.getKey(), k -> new ArrayList<>()).add(field.getValue().asLong());
+                }
+            });
+        }
+
+        JsonNode latest = runs.get(runs.size() - 1);
+        System.out.println("jalon            | lancements | médiane |     p90 |     min |     max | dernier");
+        values.forEach((milestone, millis) -> {
+            List<Long> sorted = new ArrayList<>(millis);
+            sorted.sort(null);
+            System.out.printf("%-16s | %10d | %5d ms | %5d ms | %5d ms | %5d ms | %s%n", milestone, sorted.size(),
+                    percentile(sorted, 50), percentile(sorted, 90), sorted.get(0), sorted.get(sorted.size() - 1),
+                    latest.has(milestone) ? latest.get(milestone).asLong() + " ms" : "-");
+        });
+    }
+
+    private static long percentile(List<Long> sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
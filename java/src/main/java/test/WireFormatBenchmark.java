@@ -0,0 +1,193 @@
+package test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import services.bdd.JsonRowReader;
+import services.bdd.MicrolangageWorker;
+import services.bdd.RowMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Compare les formats du protocole worker sur un résultat de type users (10 000 lignes par défaut)
+ * JSON : une trame ROW par ligne ; CBOR : trames ROWS de 256 lignes ; texte : réponse QUERY complète (tableau JSON)
+ * Pour chaque format : octets transférés, coût d'encodage, coût de décodage ligne par ligne (arbre complet et une colonne)
+ * Usage : WireFormatBenchmark [nombre de lignes]
+ */
+public class WireFormatBenchmark {
+
+    // Même taille de paquet que WIRE_ROWS_PER_FRAME côté microlangage
+    private static final int ROWS_PER_FRAME = 256;
+    private static final int ITERATIONS = 20;
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+    private static final ObjectMapper cborMapper = new CBORMapper();
+
+    private interface Codec {
+        List<byte[]> encode(List<Map<String, Object>> rows) throws Exception;
+
+        <T> void decode(List<byte[]> frames, RowMapper<T> mapper, Consumer<T> rowConsumer) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        List<Map<String, Object>> rows = users(count);
+        System.out.println("👥 " + count + " ligne(s) users, " + ITERATIONS + " mesure(s) après chauffe\n");
+
+        Codec text = new Codec() {
+            public List<byte[]> encode(List<Map<String, Object>> r) throws Exception {
+                return List.of(jsonMapper.writeValueAsBytes(r));
+            }
+
+            public <T> void decode(List<byte[]> frames, RowMapper<T> mapper, Consumer<T> rowConsumer) {
+                JsonRowReader.readArray(new String(frames.get(0), StandardCharsets.UTF_8), mapper, rowConsumer);
+            }
+        };
+        Codec json = new Codec() {
+            public List<byte[]> encode(List<Map<String, Object>> r) throws Exception {
+                List<byte[]> frames = new ArrayList<>();
+                for (Map<String, Object> row : r) {
+                    frames.add(frame("ROW", jsonMapper.writeValueAsBytes(row)));
+                }
+                return frames;
+            }
+
+            public <T> void decode(List<byte[]> frames, RowMapper<T> mapper, Consumer<T> rowConsumer) throws Exception {
+                for (byte[] frame : frames) {
+                    String payload = new String(frame, headerLength(frame), frame.length - headerLength(frame), StandardCharsets.UTF_8);
+                    rowConsumer.accept(JsonRowReader.readRow(payload, mapper));
+                }
+            }
+        };
+        Codec cbor = new Codec() {
+            public List<byte[]> encode(List<Map<String, Object>> r) throws Exception {
+                List<byte[]> frames = new ArrayList<>();
+                for (int i = 0; i < r.size(); i += ROWS_PER_FRAME) {
+                    frames.add(frame("ROWS", cborMapper.writeValueAsBytes(r.subList(i, Math.min(r.size(), i + ROWS_PER_FRAME)))));
+                }
+                return frames;
+            }
+
+            public <T> void decode(List<byte[]> frames, RowMapper<T> mapper, Consumer<T> rowConsumer) throws Exception {
+                for (byte[] frame : frames) {
+                    int header = headerLength(frame);
+                    byte[] payload = new byte[frame.length - header];
+                    System.arraycopy(frame, header, payload, 0, payload.length);
+                    MicrolangageWorker.readCborRows(payload, mapper, rowConsumer);
+                }
+            }
+        };
+
+        System.out.println("format          |   octets | encodage | décodage arbre | décodage 1 colonne");
+        // Référence : le mode flux actuel, une trame ROW JSON par ligne
+        Result reference = measure("json (ROW)", json, rows);
+        reference.print(reference);
+        measure("texte (QUERY)", text, rows).print(reference);
+        measure("cbor (ROWS)", cbor, rows).print(reference);
+        System.out.println("\nL'encodage est mesuré avec Jackson ; côté microlangage il est fait par json.dumps ou cbor2");
+    }
+
+    private record Result(String name, long bytes, double encodeMs, double treeMs, double columnMs) {
+        void print(Result reference) {
+            System.out.printf("%-15s | %8d | %6.2f ms | %9.2f ms | %13.2f ms   (%+.0f%% octets, %+.0f%% décodage)%n",
+                    name, bytes, encodeMs, treeMs, columnMs,
+                    100.0 * (bytes - reference.bytes) / reference.bytes,
+                    100.0 * (treeMs - reference.treeMs) / reference.treeMs);
+        }
+    }
+
+    private static Result measure(String name, Codec codec, List<Map<String, Object>> rows) throws Exception {
+        List<byte[]> frames = codec.encode(rows);
+        long bytes = 0;
+        for (byte[] frame : frames) {
+            bytes += frame.length;
+        }
+        int[] decoded = {0};
+        RowMapper<String> email = RowMapper.column("email");
+
+        // Chauffe
+        for (int i = 0; i < ITERATIONS; i++) {
+            codec.encode(rows);
+            codec.decode(frames, RowMapper.JSON_NODE, node -> decoded[0]++);
+            codec.decode(frames, email, value -> decoded[0]++);
+        }
+
+        long debut = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            codec.encode(rows);
+        }
+        double encodeMs = (System.nanoTime() - debut) / 1e6 / ITERATIONS;
+
+        List<JsonNode> check = new ArrayList<>();
+        debut = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            check.clear();
+            codec.decode(frames, RowMapper.JSON_NODE, check::add);
+        }
+        double treeMs = (System.nanoTime() - debut) / 1e6 / ITERATIONS;
+
+        debut = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            codec.decode(frames, email, value -> decoded[0]++);
+        }
+        double columnMs = (System.nanoTime() - debut) / 1e6 / ITERATIONS;
+
+        if (check.size() != rows.size() || !check.get(0).path("email").asText().equals(rows.get(0).get("email"))) {
+            throw new IllegalStateException(name + " : décodage incorrect");
+        }
+        return new Result(name, bytes, encodeMs, treeMs, columnMs);
+    }
+
+    // Trame worker : "<STATUT> <taille>\n" puis la charge utile
+    private static byte[] frame(String status, byte[] payload) {
+        byte[] header = (status + " " + payload.length + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] frame = new byte[header.length + payload.length];
+        System.arraycopy(header, 0, frame, 0, header.length);
+        System.arraycopy(payload, 0, frame, header.length, payload.length);
+        return frame;
+    }
+
+    private static int headerLength(byte[] frame) {
+        int i = 0;
+        while (frame[i] != '\n') {
+            i++;
+        }
+        return i + 1;
+    }
+
+    // Lignes avec les colonnes et les types de la table users (dates en texte comme json.dumps(default=str))
+    private static List<Map<String, Object>> users(int count) {
+        String[] villes = {"Paris", "Lyon", "Marseille", "Toulouse", "Nantes", "Lille", "Bordeaux", "Rennes"};
+        List<Map<String, Object>> rows = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", UUID.nameUUIDFromBytes(("user" + i).getBytes(StandardCharsets.UTF_8)).toString());
+            row.put("tag", "voisin" + i);
+            row.put("email", "voisin" + i + "@example.fr");
+            row.put("password", "$2a$10$" + String.format("%08x", i * 0x9E3779B1) + "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMN");
+            row.put("pseudo", "Voisin n°" + i);
+            row.put("avatar", i % 3 == 0 ? null : "https://cdn.example.fr/avatars/" + i + ".png");
+            row.put("bio", i % 2 == 0 ? "Habitant du quartier depuis " + (i % 30) + " ans, j'aime le jardinage et les brocantes." : null);
+            row.put("isVerified", i % 4 != 0);
+            row.put("isActive", true);
+            row.put("role", i % 50 == 0 ? "admin" : "user");
+            row.put("lastLogin", base.plusMinutes(i * 37L).toString().replace('T', ' '));
+            row.put("preferences", Map.of("theme", i % 2 == 0 ? "sombre" : "clair", "notifications", i % 5 != 0));
+            row.put("ville", villes[i % villes.length]);
+            row.put("age", 18 + i % 70);
+            row.put("createdAt", base.minusDays(i % 900).toString().replace('T', ' '));
+            row.put("deletedAt", null);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
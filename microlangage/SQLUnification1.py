@@ -4,11 +4,18 @@ import ply.yacc as yacc
 from pymongo import MongoClient
 import py2neo
 import psycopg2
+import psycopg2.extensions
 import os
+import re
 import dotenv
 import json
 import base64
 import binascii
+try:
+    # Format binaire optionnel du worker (négocié par FORMAT), JSON sinon
+    import cbor2
+except ImportError:
+    cbor2 = None
 # from libs.genereTreeGraphviz2 import printTreeGraph
 
 # Chargement des variables d'environnement
@@ -39,6 +46,13 @@ reserved = {
     'DATABASE': 'DATABASE',
     'TRUE': 'TRUE',
     'FALSE': 'FALSE',
+    'DISTINCT': 'DISTINCT',
+    'ORDER': 'ORDER',
+    'BY': 'BY',
+    'ASC': 'ASC',
+    'DESC': 'DESC',
+    'LIMIT': 'LIMIT',
+    'OFFSET': 'OFFSET',
 }
 
 # Les tokens
@@ -79,16 +93,42 @@ def t_JSON_STRING(t):
 
 # Valeurs sous forme de chaînes - Version simple pour les autres cas
 def t_STRING(t):
-    r'''('[^']*')|("[^"]*")'''
-    t.value = t.value[1:-1]  # Enlever les guillemets (simples ou doubles)
+    r'''('(?:[^']|'')*')|("(?:[^"]|"")*")'''
+    quote = t.value[0]
+    # Enlever les guillemets (simples ou doubles) ; un guillemet doublé est un caractère littéral
+    t.value = t.value[1:-1].replace(quote * 2, quote)
     return t
 
 # Traitement des mots
 def t_NAME(t):
     r'[a-zA-Z_][a-zA-Z0-9_]*'
     t.type = reserved.get(t.value.upper(), 'NAME')
+    if t.type in CONTEXTUAL_KEYWORDS and not is_keyword_here(t.type, t.lexer.lexdata, t.lexpos, t.lexpos + len(t.value)):
+        t.type = 'NAME'
     return t
 
+# Mots clés de tri et de pagination : reconnus seulement à leur place,
+# ailleurs ce sont des noms de colonnes ordinaires (desc, order, offset...)
+CONTEXTUAL_KEYWORDS = {'DISTINCT', 'ORDER', 'BY', 'ASC', 'DESC', 'LIMIT', 'OFFSET'}
+
+def is_keyword_here(word, data, start, end):
+    """Vrai si le mot est employé comme mot clé à cette position de la commande"""
+    before = re.search(r'([A-Za-z_][A-Za-z0-9_]*|\S)\s*$', data[:start])
+    previous = before.group(1).upper() if before else ''
+    after = data[end:].lstrip()
+    if word == 'DISTINCT':
+        return previous == 'SELECT' and not re.match(r'(FROM\b|,)', after, re.IGNORECASE)
+    if word == 'ORDER':
+        return re.match(r'BY\b', after, re.IGNORECASE) is not None
+    if word == 'BY':
+        return previous == 'ORDER'
+    if word in ('ASC', 'DESC'):
+        # Après une colonne de la clause ORDER BY
+        return (re.search(r'\bORDER\s+BY\b', data[:start], re.IGNORECASE) is not None
+                and re.match(r'[A-Za-z_]', previous) is not None and previous != 'BY')
+    # LIMIT, OFFSET : suivis d'un nombre
+    return re.match(r'-?\d', after) is not None
+
 # Règles de syntaxe pour les tokens
 t_COMMA = r','
 t_LPAREN = r'\('
@@ -109,6 +149,12 @@ t_AMPERSAND = r'&'
 t_DOT = r'\.'
 t_BACKSLASH = r'\\'
 
+# Valeurs numériques (définies avant les caractères spéciaux : le '-' d'un nombre signé n'est pas ignoré)
+def t_NUMBER(t):
+    r'-?\d+'
+    t.value = int(t.value)
+    return t
+
 # Caractères spéciaux - les ignorer silencieusement dans le parsing principal
 def t_SPECIAL_CHAR(t):
     r'[àáâãäåæçèéêëìíîïðñòóôõöøùúûüýÿ?%/\-«»]'
@@ -117,12 +163,6 @@ def t_SPECIAL_CHAR(t):
 # Ignorer les espaces et tabulations
 t_ignore = ' \t\n'
 
-# Valeurs numériques
-def t_NUMBER(t):
-    r'\d+'
-    t.value = int(t.value)
-    return t
-
 # Gestion des erreurs
 def t_error(t):
     print(f"Caractère illégal: {t.value[0]}")
@@ -162,12 +202,59 @@ def p_commande(p):
     # printTreeGraph(p[0])  # Affiche l'arbre syntaxique comme dans le second exemple
 
 def p_select_commande(p):
-    """select_commande : SELECT column_list FROM table_name
-                       | SELECT column_list FROM table_name WHERE condition_expr"""
-    if len(p) == 5:
-        p[0] = {'type': 'SELECT', 'columns': p[2], 'table': p[4], 'where': None}
+    """select_commande : select_core
+                       | select_core order_clause
+                       | select_core limit_clause
+                       | select_core order_clause limit_clause"""
+    p[0] = p[1]
+    for clause in p[2:]:
+        p[0].update(clause)
+
+def p_select_core(p):
+    """select_core : SELECT column_list FROM table_name
+                   | SELECT column_list FROM table_name WHERE condition_expr
+                   | SELECT DISTINCT column_list FROM table_name
+                   | SELECT DISTINCT column_list FROM table_name WHERE condition_expr"""
+    distinct = isinstance(p[2], str)  # DISTINCT est le seul terminal possible en 2e position
+    offset = 1 if distinct else 0
+    where = p[6 + offset] if len(p) == 7 + offset else None
+    p[0] = {'type': 'SELECT', 'distinct': distinct, 'columns': p[2 + offset], 'table': p[4 + offset],
+            'where': where, 'order_by': [], 'limit': None, 'offset': None}
+
+def p_order_clause(p):
+    """order_clause : ORDER BY order_list"""
+    p[0] = {'order_by': p[3]}
+
+def p_order_list(p):
+    """order_list : order_item
+                  | order_item COMMA order_list"""
+    if len(p) == 2:
+        p[0] = [p[1]]
+    else:
+        p[0] = [p[1]] + p[3]
+
+def p_order_item(p):
+    """order_item : NAME
+                  | NAME ASC
+                  | NAME DESC"""
+    p[0] = (p[1], 'DESC' if len(p) == 3 and p[2].upper() == 'DESC' else 'ASC')
+
+def p_limit_clause(p):
+    """limit_clause : LIMIT NUMBER
+                    | LIMIT NUMBER OFFSET NUMBER
+                    | OFFSET NUMBER"""
+    if p[1].upper() == 'OFFSET':
+        p[0] = {'offset': count_value(p[2], 'OFFSET')}
+    elif len(p) == 3:
+        p[0] = {'limit': count_value(p[2], 'LIMIT')}
     else:
-        p[0] = {'type': 'SELECT', 'columns': p[2], 'table': p[4], 'where': p[6]}
+        p[0] = {'limit': count_value(p[2], 'LIMIT'), 'offset': count_value(p[4], 'OFFSET')}
+
+def count_value(value, clause):
+    """LIMIT / OFFSET négatif refusé dès l'analyse (même message que le moteur Java)"""
+    if value < 0:
+        raise ValueError(f"{clause} doit être positif: {value}")
+    return value
 
 def p_column_list(p):
     """column_list : STAR
@@ -320,8 +407,62 @@ def p_error(p):
     else:
         print("Erreur de syntaxe à la fin de l'entrée")
 
+# Lecture en flux : quand row_sink est défini, les SELECT transmettent chaque ligne dès qu'elle est lue
+row_sink = None
+
+def emit_rows(rows):
+    """Renvoie le tableau JSON complet, ou transmet les lignes une à une en mode flux (retourne None)"""
+    if row_sink is None:
+        return json.dumps(list(rows), default=str, indent=2)
+    for row in rows:
+        row_sink(row)
+    return None
+
+def iter_rows_postgres(cur):
+    """Itère sur les lignes d'un curseur PostgreSQL sous forme de dictionnaires"""
+    col_names = None
+    for row in cur:
+        if col_names is None:
+            col_names = [desc[0] for desc in cur.description]
+        yield dict(zip(col_names, row))
+
+# Connexions partagées pendant l'exécution d'un lot (trame BATCH du worker)
+batch_connections = None
+
+class SharedConnection:
+    """Connexion prêtée à une requête d'un lot : close() termine la transaction sans fermer"""
+    def __init__(self, conn):
+        self._conn = conn
+
+    def __getattr__(self, name):
+        return getattr(self._conn, name)
+
+    def __getitem__(self, key):
+        return self._conn[key]
+
+    def close(self):
+        # Seul PostgreSQL a une transaction à terminer ; un MongoClient répond à n'importe quel attribut
+        # (client.rollback est la base "rollback") et reste ouvert jusqu'à la fin du lot
+        if isinstance(self._conn, psycopg2.extensions.connection):
+            self._conn.rollback()
+
+def reusable_in_batch(connect):
+    """Réutilise la même connexion pour toutes les requêtes d'un lot"""
+    def wrapper():
+        if batch_connections is None:
+            return connect()
+        if connect.__name__ not in batch_connections:
+            conn = connect()
+            if not conn:
+                return conn
+            batch_connections[connect.__name__] = conn
+        return SharedConnection(batch_connections[connect.__name__])
+    wrapper.__name__ = connect.__name__
+    return wrapper
+
 # Connexion aux bases de données
 # Connexion PostgreSQL
+@reusable_in_batch
 def connect_postgres():
     try:
         return psycopg2.connect(
@@ -336,6 +477,7 @@ def connect_postgres():
         return None
 
 # Connexion MongoDB   
+@reusable_in_batch
 def connect_mongodb():
     try:
         uri = f"mongodb://{os.environ.get('MONGO_USER', '')}:{os.environ.get('MONGO_PASSWORD', '')}@{os.environ.get('MONGO_HOST', 'localhost')}:{os.environ.get('MONGO_PORT', 27017)}/{os.environ.get('MONGO_DB', 'conversations_db')}?authSource=admin"
@@ -349,6 +491,7 @@ def connect_mongodb():
         return None
 
 # Connexion Neo4j
+@reusable_in_batch
 def connect_neo4j():
     try:
         return py2neo.Graph(
@@ -414,32 +557,36 @@ def execute_postgresql(stmt, debug=False):
             
             # Nom de table avec guillemets pour préserver la casse
             table_name = f'"{stmt["table"]}"'
-            query = f"SELECT {columns} FROM {table_name}"
+            distinct = 'DISTINCT ' if stmt.get('distinct') else ''
+            query = f"SELECT {distinct}{columns} FROM {table_name}"
             
             params = []
             if stmt['where']:
                 where_clause = build_where_clause_postgres(stmt['where'], params)
                 query += f" WHERE {where_clause}"
             
+            # Tri et pagination faits par le serveur
+            if stmt.get('order_by'):
+                query += " ORDER BY " + ', '.join([f'"{col}" {direction}' for col, direction in stmt['order_by']])
+            if stmt.get('limit') is not None:
+                query += " LIMIT %s"
+                params.append(stmt['limit'])
+            if stmt.get('offset') is not None:
+                query += " OFFSET %s"
+                params.append(stmt['offset'])
+            
             if debug:
                 print(f"Requête SQL générée: {query}")
                 print(f"Paramètres: {params}")
             
-            cur.execute(query, params)
-            result = cur.fetchall()
-            
-            # Récupérer les noms des colonnes
-            col_names = [desc[0] for desc in cur.description]
-            
-            # Convertir en liste de dictionnaires pour un format JSON
-            json_result = []
-            for row in result:
-                row_dict = {}
-                for i, value in enumerate(row):
-                    row_dict[col_names[i]] = value
-                json_result.append(row_dict)
+            if row_sink is not None:
+                # Curseur côté serveur : les lignes arrivent par paquets au lieu d'être toutes chargées
+                cur.close()
+                cur = conn.cursor(name='sqlunification_stream')
+                cur.itersize = 500
             
-            return json.dumps(json_result, default=str, indent=2)
+            cur.execute(query, params)
+            return emit_rows(iter_rows_postgres(cur))
             
         elif stmt['type'] == 'INSERT':
             if stmt['columns']:
@@ -529,14 +676,37 @@ def execute_mongodb(stmt, debug=False):
             if stmt['where']:
                 query = build_mongo_query(stmt['where'])
             
+            sort = [(col, -1 if direction == 'DESC' else 1) for col, direction in stmt.get('order_by', [])]
+            
+            if stmt.get('distinct') and stmt['columns'] != ['*']:
+                # DISTINCT : regroupement côté serveur sur les colonnes demandées
+                pipeline = [
+                    {'$match': query},
+                    {'$group': {'_id': {col: f'${col}' for col in stmt['columns']}}},
+                    {'$replaceRoot': {'newRoot': '$_id'}},
+                ]
+                if sort:
+                    pipeline.append({'$sort': dict(sort)})
+                if stmt.get('offset'):
+                    pipeline.append({'$skip': stmt['offset']})
+                if stmt.get('limit') is not None:
+                    pipeline.append({'$limit': stmt['limit']})
+                return emit_rows(collection.aggregate(pipeline))
+            
             projection = None
             if stmt['columns'] != ['*']:
                 projection = {col: 1 for col in stmt['columns']}
                 if '_id' not in stmt['columns']:
                     projection['_id'] = 0
             
-            result = list(collection.find(query, projection))
-            return json.dumps(result, default=str, indent=2)
+            cursor = collection.find(query, projection)
+            if sort:
+                cursor = cursor.sort(sort)
+            if stmt.get('offset'):
+                cursor = cursor.skip(stmt['offset'])
+            if stmt.get('limit') is not None:
+                cursor = cursor.limit(stmt['limit'])
+            return emit_rows(cursor)
             
         elif stmt['type'] == 'INSERT':
             collection = db[stmt['table']]
@@ -672,6 +842,10 @@ def execute_mongodb(stmt, debug=False):
     finally:
         client.close()
 
+def cypher_string(value):
+    """Littéral de chaîne Cypher, avec échappement des apostrophes et des antislashs"""
+    return "'" + value.replace('\\', '\\\\').replace("'", "\\'") + "'"
+
 def execute_neo4j(stmt, debug=False):
     graph = connect_neo4j()
     if not graph:
@@ -688,7 +862,7 @@ def execute_neo4j(stmt, debug=False):
                 if stmt['where']['type'] == 'comparison':
                     value = stmt['where']['value']
                     if isinstance(value, str):
-                        value = f"'{value}'"  # Guillemets pour les chaînes
+                        value = cypher_string(value)
                     where_clause = f" WHERE n.{stmt['where']['field']} {stmt['where']['operator']} {value}"
                 elif stmt['where']['type'] == 'null_check':
                     if stmt['where']['operator'] == 'IS NULL':
@@ -696,14 +870,21 @@ def execute_neo4j(stmt, debug=False):
                     else:
                         where_clause = f" WHERE n.{stmt['where']['field']} IS NOT NULL"
             
-            return_clause = " RETURN n"
+            distinct = "DISTINCT " if stmt.get('distinct') else ""
+            return_clause = f" RETURN {distinct}n"
             if stmt['columns'] != ['*']:
                 return_items = [f"n.{col}" for col in stmt['columns']]
-                return_clause = f" RETURN {', '.join(return_items)}"
+                return_clause = f" RETURN {distinct}{', '.join(return_items)}"
+            
+            if stmt.get('order_by'):
+                return_clause += " ORDER BY " + ', '.join([f"n.{col} {direction}" for col, direction in stmt['order_by']])
+            if stmt.get('offset') is not None:
+                return_clause += f" SKIP {int(stmt['offset'])}"
+            if stmt.get('limit') is not None:
+                return_clause += f" LIMIT {int(stmt['limit'])}"
             
             query = match_clause + where_clause + return_clause
-            result = list(graph.run(query))
-            return json.dumps([dict(record) for record in result], default=str, indent=2)
+            return emit_rows(dict(record) for record in graph.run(query))
             
         elif stmt['type'] == 'INSERT':
             # Pour Neo4j, création d'un nœud
@@ -736,7 +917,7 @@ def execute_neo4j(stmt, debug=False):
             if stmt['where'] and stmt['where']['type'] == 'comparison':
                 value = stmt['where']['value']
                 if isinstance(value, str):
-                    value = f"'{value}'"
+                    value = cypher_string(value)
                 where_clause = f" WHERE n.{stmt['where']['field']} {stmt['where']['operator']} {value}"
             
             # Construction de la clause SET
@@ -744,7 +925,7 @@ def execute_neo4j(stmt, debug=False):
             for assignment in stmt['assignments']:
                 value = assignment['value']
                 if isinstance(value, str):
-                    value = f"'{value}'"
+                    value = cypher_string(value)
                 set_items.append(f"n.{assignment['field']} = {value}")
             
             set_clause = f" SET {', '.join(set_items)}"
@@ -760,7 +941,7 @@ def execute_neo4j(stmt, debug=False):
             if stmt['where'] and stmt['where']['type'] == 'comparison':
                 value = stmt['where']['value']
                 if isinstance(value, str):
-                    value = f"'{value}'"
+                    value = cypher_string(value)
                 where_clause = f" WHERE n.{stmt['where']['field']} {stmt['where']['operator']} {value}"
             
             query = match_clause + where_clause + " DELETE n"
@@ -885,12 +1066,280 @@ def run_tests():
     print("\nTest 4: Requête MongoDB")
     print(execute("mongo", "SELECT name, age FROM users WHERE age > 25"))
 
+# Mode worker : processus résident piloté par la JVM
+# Trame requête : "<COMMANDE> [<type_bdd> <taille>]\n" suivie de <taille> octets UTF-8
+# Trame réponse : "<STATUT> <taille>\n" suivie de <taille> octets UTF-8
+# Exception : "INGEST <type_bdd> <collection> <cles|->\n" est suivie de lignes JSON terminées par une ligne vide
+# "FORMAT cbor" active le format binaire s'il est disponible : lots et documents en CBOR, lignes en trames ROWS
+# (tableau CBOR de lignes) au lieu d'une trame ROW JSON par ligne ; les requêtes et messages restent en texte
+def read_exact(stream, size):
+    """Lit exactement size octets sur le flux (None si le flux est fermé)"""
+    data = b''
+    while len(data) < size:
+        chunk = stream.read(size - len(data))
+        if not chunk:
+            return None
+        data += chunk
+    return data
+
+def write_frame(stream, status, payload):
+    """Écrit une trame de réponse et vide le tampon (texte encodé en UTF-8 ou octets déjà encodés)"""
+    data = payload if isinstance(payload, bytes) else payload.encode('utf-8')
+    stream.write(f"{status} {len(data)}\n".encode('utf-8'))
+    stream.write(data)
+    stream.flush()
+
+def execute_batch(db_type, sql_commands, debug=False):
+    """Exécute plusieurs commandes avec les mêmes connexions, un résultat par commande"""
+    global batch_connections
+    batch_connections = {}
+    try:
+        results = []
+        for sql_command in sql_commands:
+            try:
+                results.append(str(execute(db_type, sql_command, debug)))
+            except Exception as e:
+                results.append(f"Erreur d'exécution: {e}")
+        return results
+    finally:
+        for conn in batch_connections.values():
+            try:
+                if hasattr(conn, 'close'):
+                    conn.close()
+            except Exception:
+                pass
+        batch_connections = None
+
+def stream_query(db_type, sql_command, debug, on_row, on_end):
+    """Exécute une commande en mode flux : on_row pour chaque ligne, on_end(statut, message) à la fin"""
+    global row_sink
+    count = 0
+    def sink(row):
+        nonlocal count
+        on_row(row)
+        count += 1
+    row_sink = sink
+    try:
+        result = execute(db_type, sql_command, debug)
+    except Exception as e:
+        result = f"Erreur d'exécution: {e}"
+    finally:
+        row_sink = None
+    if result is None:
+        on_end('END', str(count))
+    else:
+        on_end('OK', str(result))
+
+def run_ndjson(db_type, sql_command, debug=False):
+    """Mode --ndjson : une ligne JSON par résultat sur stdout, le message éventuel en dernière ligne"""
+    rows_out = sys.stdout
+    sys.stdout = sys.stderr
+    def on_row(row):
+        rows_out.write(json.dumps(row, default=str) + '\n')
+    def on_end(status, message):
+        if status == 'OK':
+            rows_out.write(message.replace('\n', ' ') + '\n')
+        rows_out.flush()
+    stream_query(db_type, sql_command, debug, on_row, on_end)
+
+INGEST_BATCH_SIZE = int(os.environ.get('INGEST_BATCH_SIZE', 500))
+
+def ingest(db_type, collection_name, key_fields, documents, debug=False):
+    """Écriture en masse : documents déjà décodés, envoyés à MongoDB par lots non ordonnés
+    Avec des champs clés, chaque document remplace celui de mêmes clés (ou est créé), sinon il est inséré"""
+    from pymongo import InsertOne, ReplaceOne
+    from pymongo.errors import BulkWriteError
+    if db_type.lower() != 'mongo':
+        return f"Erreur: écriture en masse non supportée pour {db_type}"
+
+    client = connect_mongodb()
+    if not client:
+        return "Erreur de connexion à MongoDB"
+    counts = {'inserted': 0, 'replaced': 0, 'upserted': 0}
+    errors = []
+
+    def flush(operations):
+        try:
+            result = collection.bulk_write(operations, ordered=False)
+            details = result.bulk_api_result
+        except BulkWriteError as e:
+            details = e.details
+            errors.extend(error.get('errmsg', '') for error in details.get('writeErrors', []))
+        counts['inserted'] += details.get('nInserted', 0)
+        counts['replaced'] += details.get('nModified', 0)
+        counts['upserted'] += details.get('nUpserted', 0)
+
+    try:
+        collection = client[os.environ.get('MONGO_DB', 'admin')][collection_name]
+        operations = []
+        for document in documents:
+            if key_fields:
+                operations.append(ReplaceOne({key: document.get(key) for key in key_fields}, document, upsert=True))
+            else:
+                operations.append(InsertOne(document))
+            if len(operations) >= INGEST_BATCH_SIZE:
+                flush(operations)
+                operations = []
+        if operations:
+            flush(operations)
+
+        totals = f"Documents insérés: {counts['inserted'] + counts['upserted']}, remplacés: {counts['replaced']}"
+        if errors:
+            return f"Erreur MongoDB: {len(errors)} document(s) rejeté(s) ({errors[0]}). {totals}"
+        return f"Écriture en masse réussie. {totals}"
+    except Exception as e:
+        return f"Erreur MongoDB: {e}"
+    finally:
+        client.close()
+
+def parse_ingest_lines(lines):
+    """Documents d'un flux NDJSON, lignes vides ignorées"""
+    return (json.loads(line) for line in lines if line.strip())
+
+def read_ingest_records(stream):
+    """Enregistrements CBOR d'une trame INGEST binaire ("<taille>\\n<octets>"), jusqu'à la taille 0 qui la termine"""
+    while True:
+        header = stream.readline()
+        if not header or int(header) == 0:
+            return
+        record = read_exact(stream, int(header))
+        if record is None:
+            return
+        yield record
+
+WIRE_ROWS_PER_FRAME = 256
+
+def to_wire(value):
+    """Valeur transmissible en CBOR : les types inconnus deviennent du texte, comme json.dumps(default=str)"""
+    if value is None or isinstance(value, (str, bool, int, float)):
+        return value
+    if isinstance(value, dict):
+        return {str(key): to_wire(item) for key, item in value.items()}
+    if isinstance(value, (list, tuple)):
+        return [to_wire(item) for item in value]
+    return str(value)
+
+def read_ingest_lines(stream):
+    """Lignes d'une trame INGEST, jusqu'à la ligne vide qui la termine"""
+    while True:
+        line = stream.readline()
+        if not line or not line.strip():
+            return
+        yield line.decode('utf-8')
+
+def parse_key_fields(value):
+    return [] if value in ('', '-') else value.split(',')
+
+def run_worker(debug=False):
+    """Boucle du worker : lit les trames sur stdin et répond sur stdout"""
+    frames_out = sys.stdout.buffer
+    frames_in = sys.stdin.buffer
+    # Les print() du parser et des connecteurs ne doivent pas polluer le protocole
+    sys.stdout = sys.stderr
+
+    # Format des charges utiles structurées (lignes, lots, documents) : json par défaut, cbor après négociation
+    wire = 'json'
+    write_frame(frames_out, 'READY', '')
+    while True:
+        header = frames_in.readline()
+        if not header:
+            break
+
+        parts = header.decode('utf-8').strip().split(' ')
+        command = parts[0].upper()
+
+        if command == 'PING':
+            write_frame(frames_out, 'OK', 'PONG')
+        elif command == 'QUIT':
+            write_frame(frames_out, 'OK', 'BYE')
+            break
+        elif command == 'FORMAT' and len(parts) == 2:
+            # Le client propose un format, le worker répond avec celui qu'il utilisera
+            wire = 'cbor' if parts[1].lower() == 'cbor' and cbor2 is not None else 'json'
+            write_frame(frames_out, 'OK', wire)
+        elif command == 'QUERY' and len(parts) == 3:
+            payload = read_exact(frames_in, int(parts[2]))
+            if payload is None:
+                break
+            try:
+                result = execute(parts[1], payload.decode('utf-8'), debug)
+                write_frame(frames_out, 'OK', str(result))
+            except Exception as e:
+                write_frame(frames_out, 'ERR', f"Erreur d'exécution: {e}")
+        elif command == 'STREAM' and len(parts) == 3:
+            # Une trame ROW par ligne, puis END (nombre de lignes) ou OK (message si pas de lignes)
+            payload = read_exact(frames_in, int(parts[2]))
+            if payload is None:
+                break
+            if wire == 'cbor':
+                # Trames ROWS : tableau CBOR de lignes, envoyé par paquets
+                pending = []
+                def on_row(row):
+                    pending.append(to_wire(row))
+                    if len(pending) >= WIRE_ROWS_PER_FRAME:
+                        write_frame(frames_out, 'ROWS', cbor2.dumps(pending))
+                        pending.clear()
+                def on_end(status, message):
+                    if pending:
+                        write_frame(frames_out, 'ROWS', cbor2.dumps(pending))
+                    write_frame(frames_out, status, message)
+                stream_query(parts[1], payload.decode('utf-8'), debug, on_row, on_end)
+            else:
+                stream_query(parts[1], payload.decode('utf-8'), debug,
+                             lambda row: write_frame(frames_out, 'ROW', json.dumps(row, default=str)),
+                             lambda status, message: write_frame(frames_out, status, message))
+        elif command == 'INGEST' and len(parts) == 4:
+            # Charge utile (taille inconnue à l'avance) : en json une ligne par document terminée par une ligne vide,
+            # en cbor un enregistrement "<taille>\n<octets>" par document terminé par "0\n"
+            if wire == 'cbor':
+                records = read_ingest_records(frames_in)
+                documents = (cbor2.loads(record) for record in records)
+            else:
+                records = read_ingest_lines(frames_in)
+                documents = parse_ingest_lines(records)
+            try:
+                result = ingest(parts[1], parts[2], parse_key_fields(parts[3]), documents, debug)
+            except Exception as e:
+                result = f"Erreur d'exécution de l'écriture en masse: {e}"
+            # Les enregistrements restants de la trame sont consommés pour garder le protocole aligné
+            for _ in records:
+                pass
+            write_frame(frames_out, 'ERR' if result.startswith('Erreur') else 'OK', result)
+        elif command == 'BATCH' and len(parts) == 3:
+            # Charge utile : tableau JSON de commandes, réponse : tableau JSON des résultats dans le même ordre
+            payload = read_exact(frames_in, int(parts[2]))
+            if payload is None:
+                break
+            try:
+                if wire == 'cbor':
+                    results = execute_batch(parts[1], cbor2.loads(payload), debug)
+                    write_frame(frames_out, 'OK', cbor2.dumps([str(result) for result in results]))
+                else:
+                    results = execute_batch(parts[1], json.loads(payload.decode('utf-8')), debug)
+                    write_frame(frames_out, 'OK', json.dumps(results))
+            except Exception as e:
+                write_frame(frames_out, 'ERR', f"Erreur d'exécution du lot: {e}")
+        else:
+            write_frame(frames_out, 'ERR', f"Commande worker inconnue: {header.decode('utf-8').strip()}")
+
 if __name__ == '__main__':
     debug_mode = '--debug' in sys.argv
     if debug_mode:
         sys.argv.remove('--debug')
     
-    if len(sys.argv) == 3:
+    ndjson_mode = '--ndjson' in sys.argv
+    if ndjson_mode:
+        sys.argv.remove('--ndjson')
+    
+    if '--worker' in sys.argv:
+        run_worker(debug_mode)
+    elif len(sys.argv) in (4, 5) and sys.argv[1] == '--ingest':
+        # Documents lus sur stdin, une ligne JSON par document
+        print(ingest(sys.argv[2], sys.argv[3], parse_key_fields(sys.argv[4] if len(sys.argv) == 5 else ''),
+                     parse_ingest_lines(line.decode('utf-8') for line in sys.stdin.buffer), debug_mode))
+    elif ndjson_mode and len(sys.argv) == 3:
+        run_ndjson(sys.argv[1], sys.argv[2], debug_mode)
+    elif len(sys.argv) == 3:
         # Mode avec type de base de données et commande SQL
         db_type = sys.argv[1]
         sql_command = sys.argv[2]
@@ -926,6 +1375,9 @@ if __name__ == '__main__':
         print("Erreur: arguments incorrects")
         print("Usage 1: python SQLUnification.py [--debug] <type_bdd> \"<commande_sql>\"")
         print("Usage 2: python SQLUnification.py [--debug] <fichier>")
+        print("Usage 3: python SQLUnification.py [--debug] --worker")
+        print("Usage 4: python SQLUnification.py [--debug] --ndjson <type_bdd> \"<commande_sql>\"")
+        print("Usage 5: python SQLUnification.py [--debug] --ingest <type_bdd> <collection> [<cle1,cle2>] < documents.ndjson")
         print("Où <fichier> est le nom du fichier contenant les requêtes SQL")
         print("Le flag --debug affiche les informations de débogage")
         sys.exit(1)
\ No newline at end of file
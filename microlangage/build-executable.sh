@@ -27,4 +27,6 @@ deactivate
 rm -rf build_env build_temp
 
 echo "✅ Exécutable créé: ../dist/SQLUnification"
-echo "   Usage: ./SQLUnification <type_bdd> \"<requête_sql>\""
\ No newline at end of file
+echo "   Usage: ./SQLUnification <type_bdd> \"<requête_sql>\""
+echo "   Mode résident: ./SQLUnification --worker"
+echo "   Mode flux (NDJSON): ./SQLUnification --ndjson <type_bdd> \"<requête_sql>\""
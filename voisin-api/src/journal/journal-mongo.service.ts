@@ -3,6 +3,9 @@ import { InjectModel } from '@nestjs/mongoose';
 import { Model } from 'mongoose';
 import { NewsCollection, ArticleItem, NewsStructure } from './entities/article-mongo.entity';
 
+// Les collectes ajoutent des articles sans en supprimer : seuls les plus récents sont renvoyés
+const MAX_ARTICLES = parseInt(process.env.JOURNAL_MAX_ARTICLES || '50', 10);
+
 @Injectable()
 export class JournalMongoService {
   constructor(
@@ -12,16 +15,32 @@ export class JournalMongoService {
 
   /**
    * Récupérer les articles d'une ville spécifique
+   * Les collectes récentes stockent un document par article (champ ville) ;
+   * les anciens documents {"news": {ville: [...]}} restent lus en repli
+   * Les articles sont triés du plus récemment collecté au plus ancien, JOURNAL_MAX_ARTICLES au plus
    */
   async getArticlesByVille(ville: string): Promise<ArticleItem[]> {
-    const newsDoc = await this.newsModel.findOne();
-    
+    const villeNormalized = ville.toLowerCase();
+    const articles = await this.newsModel.collection
+      .find({ ville: villeNormalized }, { projection: { _id: 0, ville: 0, fingerprint: 0, contentHash: 0 } })
+      .sort({ _id: -1 })
+      .limit(MAX_ARTICLES)
+      .toArray();
+    if (articles.length > 0) {
+      return articles as unknown as ArticleItem[];
+    }
+
+    // Essayer d'abord avec la ville telle quelle, puis en minuscules
+    const newsDoc = await this.newsModel
+      .findOne({
+        $or: [{ [`news.${ville}`]: { $exists: true } }, { [`news.${villeNormalized}`]: { $exists: true } }],
+      })
+      .sort({ _id: -1 });
+
     if (!newsDoc) {
       return [];
     }
 
-    // Essayer d'abord avec la ville telle quelle, puis en minuscules
-    const villeNormalized = ville.toLowerCase();
     return newsDoc.news.get(ville) || newsDoc.news.get(villeNormalized) || [];
   }
-}
\ No newline at end of file
+}